@@ -0,0 +1,102 @@
+package com.example.hakimichat;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * 昵称首字头像的位图缓存（进程内共享）
+ * 头像（圆形底色 + 昵称首字）按 (首字, 边长, 字号, 文字颜色, 底色) 绘制成位图并缓存，
+ * 成员列表和各游戏界面的玩家头像共用，每个玩家的头像在一次会话中只绘制一次。
+ * 头像视图已经显示同一张位图时直接返回，界面刷新不会再触发文字测量和重新布局。
+ */
+public final class AvatarGlyphCache {
+
+    // 缓存上限（KB）
+    private static final int MAX_CACHE_KB = 2 * 1024;
+
+    private static final LruCache<String, Bitmap> CACHE = new LruCache<String, Bitmap>(MAX_CACHE_KB) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return Math.max(1, value.getByteCount() / 1024);
+        }
+    };
+
+    private AvatarGlyphCache() {
+    }
+
+    /**
+     * 头像上显示的字：昵称首字（按码点截取，emoji 不会被截断），电脑玩家显示“电”，空昵称显示“?”
+     */
+    public static String glyphOf(String name) {
+        if (name == null) return "";
+        if (name.startsWith("电脑")) return "电";
+        if (name.isEmpty()) return "?";
+        return name.substring(0, Character.charCount(name.codePointAt(0)));
+    }
+
+    /**
+     * 把玩家头像设置到头像视图（只在主线程调用）
+     * 视图的尺寸、字号和文字颜色取自布局；name 为 null 时只显示底色。
+     */
+    public static void bind(TextView avatarView, String name) {
+        int size = avatarView.getLayoutParams() != null ? avatarView.getLayoutParams().width : 0;
+        if (size <= 0) size = avatarView.getWidth();
+        if (size <= 0) {
+            // 尺寸未知（非固定宽度且尚未布局），退回文字显示
+            avatarView.setText(glyphOf(name));
+            return;
+        }
+
+        String glyph = glyphOf(name);
+        Bitmap bitmap = obtain(glyph, size, avatarView);
+        Drawable background = avatarView.getBackground();
+        if (background instanceof BitmapDrawable && ((BitmapDrawable) background).getBitmap() == bitmap) {
+            return;
+        }
+        if (avatarView.length() > 0) avatarView.setText("");
+        avatarView.setBackground(new BitmapDrawable(avatarView.getResources(), bitmap));
+    }
+
+    private static Bitmap obtain(String glyph, int size, TextView avatarView) {
+        int textColor = avatarView.getCurrentTextColor();
+        // 底色与 bg_avatar_circle 共用同一颜色资源
+        int circleColor = ContextCompat.getColor(avatarView.getContext(), R.color.avatarBackground);
+        float textSize = avatarView.getTextSize();
+        String key = glyph + '|' + size + '|' + textSize + '|' + Integer.toHexString(textColor)
+                + '|' + Integer.toHexString(circleColor);
+        Bitmap bitmap = CACHE.get(key);
+        if (bitmap == null) {
+            bitmap = render(glyph, size, avatarView.getPaint(), textColor, circleColor);
+            CACHE.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static Bitmap render(String glyph, int size, Paint textPaint, int textColor, int circleColor) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circlePaint.setColor(circleColor);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, circlePaint);
+
+        if (!glyph.isEmpty()) {
+            // 复制视图的文字画笔，保留字体、字号和粗体设置
+            Paint paint = new Paint(textPaint);
+            paint.setAntiAlias(true);
+            paint.setColor(textColor);
+            paint.setTextAlign(Paint.Align.CENTER);
+            Paint.FontMetrics fm = paint.getFontMetrics();
+            float baseline = size / 2f - (fm.ascent + fm.descent) / 2f;
+            canvas.drawText(glyph, size / 2f, baseline, paint);
+        }
+        return bitmap;
+    }
+}
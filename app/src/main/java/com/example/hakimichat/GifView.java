@@ -1,22 +1,74 @@
 package com.example.hakimichat;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Movie;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.View;
 
 import androidx.annotation.DrawableRes;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Very small GIF player view using android.graphics.Movie for simplicity.
- * Note: Movie is deprecated but still works for lightweight GIF playback.
+ * 轻量 GIF 播放视图（帧缓存）
+ * - 在后台线程把每一帧解码成原始尺寸的位图（借助 android.graphics.Movie 光栅化），只解码一次
+ * - 帧间隔从 GIF 的图形控制扩展块读取，只在帧切换时 invalidate，不再每帧重绘
+ * - 视图不可见或离开窗口时停止计时，离开窗口时释放帧缓存（重新挂到窗口时重新解码）
+ * - 日志输出解码耗时和绘制耗时统计
  */
 public class GifView extends View {
-    private Movie movie;
-    private long movieStart;
+    private static final String TAG = "GifView";
+    // 浏览器惯例：帧间隔小于 20ms 时按 100ms 处理
+    private static final int MIN_FRAME_DELAY_MS = 20;
+    private static final int DEFAULT_FRAME_DELAY_MS = 100;
+
+    // 所有 GifView 共用的解码线程
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect dstRect = new Rect();
+
+    @DrawableRes
+    private int resId;
+    // 每次加载加一，用于丢弃过期的解码结果
+    private int loadGeneration;
+    private Bitmap[] frames;
+    private int[] frameDelays;
+    private int frameIndex;
+    private long nextFrameAt;
+    private boolean running;
+    // 离开窗口时释放了帧缓存，重新挂到窗口时需要重新解码
+    private boolean framesReleased;
+
+    // 绘制耗时统计
+    private int drawCount;
+    private long drawNanosTotal;
+    private long drawNanosMax;
+
+    private final Runnable advanceFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (!running || frames == null) return;
+            frameIndex = (frameIndex + 1) % frames.length;
+            invalidate();
+            long now = SystemClock.uptimeMillis();
+            nextFrameAt += frameDelays[frameIndex];
+            // 落后超过一帧（例如主线程被阻塞）时重新对齐，不连续追帧
+            if (nextFrameAt < now) nextFrameAt = now + frameDelays[frameIndex];
+            postDelayed(this, nextFrameAt - now);
+        }
+    };
 
     public GifView(Context context) {
         super(context);
@@ -27,36 +79,207 @@ public class GifView extends View {
     }
 
     public void setGifResource(@DrawableRes int resId) {
-        try {
-            android.util.Log.d("GifView", "setGifResource resId=" + resId);
-            InputStream is = getResources().openRawResource(resId);
-            movie = Movie.decodeStream(is);
-            if (movie == null) {
-                android.util.Log.w("GifView", "Movie.decodeStream returned null for resId=" + resId);
+        android.util.Log.d(TAG, "setGifResource resId=" + resId);
+        this.resId = resId;
+        stopAnimation();
+        releaseFrames();
+        load();
+    }
+
+    private void load() {
+        final int generation = ++loadGeneration;
+        final int res = resId;
+        final Context appContext = getContext().getApplicationContext();
+        DECODE_EXECUTOR.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            final List<Bitmap> decoded = new ArrayList<>();
+            final List<Integer> delays = new ArrayList<>();
+            try {
+                decodeFrames(readResource(appContext, res), decoded, delays);
+            } catch (Exception | OutOfMemoryError e) {
+                android.util.Log.w(TAG, "failed to load gif resource=" + res, e);
+                decoded.clear();
             }
-            requestLayout();
-            invalidate();
-        } catch (Exception ignored) {
-            android.util.Log.w("GifView", "failed to load gif resource=" + resId, ignored);
-            movie = null;
+            android.util.Log.d(TAG, "decoded " + decoded.size() + " frames in "
+                    + (SystemClock.elapsedRealtime() - start) + "ms");
+            post(() -> {
+                if (generation != loadGeneration || decoded.isEmpty()) return;
+                frames = decoded.toArray(new Bitmap[0]);
+                frameDelays = new int[delays.size()];
+                for (int i = 0; i < frameDelays.length; i++) frameDelays[i] = delays.get(i);
+                frameIndex = 0;
+                updateDstRect();
+                invalidate();
+                updateAnimation();
+            });
+        });
+    }
+
+    private static byte[] readResource(Context context, int resId) throws IOException {
+        try (InputStream is = context.getResources().openRawResource(resId)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(is.available(), 1024));
+            byte[] buf = new byte[16 * 1024];
+            int n;
+            while ((n = is.read(buf)) != -1) out.write(buf, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 把 GIF 的每一帧光栅化为原始尺寸的位图（在后台线程调用）
+     */
+    private static void decodeFrames(byte[] data, List<Bitmap> frames, List<Integer> delays) {
+        Movie movie = Movie.decodeByteArray(data, 0, data.length);
+        if (movie == null || movie.width() <= 0 || movie.height() <= 0) {
+            android.util.Log.w(TAG, "Movie.decodeByteArray returned null");
+            return;
+        }
+        List<Integer> gifDelays = readFrameDelays(data);
+        if (gifDelays.size() <= 1 || movie.duration() <= 0) {
+            // 静态图片：只有一帧，不需要计时
+            gifDelays.clear();
+            gifDelays.add(0);
+        }
+
+        int time = 0;
+        for (int rawDelay : gifDelays) {
+            int delay = rawDelay < MIN_FRAME_DELAY_MS ? DEFAULT_FRAME_DELAY_MS : rawDelay;
+            Bitmap frame = Bitmap.createBitmap(movie.width(), movie.height(), Bitmap.Config.ARGB_8888);
+            // 取帧中间的时刻，避免落在两帧交界处
+            movie.setTime(time + rawDelay / 2);
+            movie.draw(new Canvas(frame), 0, 0);
+            frames.add(frame);
+            delays.add(delay);
+            time += rawDelay;
+        }
+    }
+
+    /**
+     * 读取各帧的间隔（毫秒），按图形控制扩展块出现顺序；格式不对时返回已读到的部分
+     */
+    static List<Integer> readFrameDelays(byte[] data) {
+        List<Integer> delays = new ArrayList<>();
+        if (data.length < 13) return delays;
+        int pos = 13;
+        int flags = data[10] & 0xFF;
+        if ((flags & 0x80) != 0) pos += 3 * (1 << ((flags & 0x07) + 1)); // 全局颜色表
+        int pendingDelay = -1;
+        while (pos < data.length) {
+            int block = data[pos] & 0xFF;
+            if (block == 0x21 && pos + 1 < data.length) {
+                int label = data[pos + 1] & 0xFF;
+                if (label == 0xF9 && pos + 5 < data.length) {
+                    pendingDelay = ((data[pos + 4] & 0xFF) | ((data[pos + 5] & 0xFF) << 8)) * 10;
+                }
+                pos = skipSubBlocks(data, pos + 2);
+            } else if (block == 0x2C) {
+                if (pos + 9 >= data.length) break;
+                int imageFlags = data[pos + 9] & 0xFF;
+                pos += 10;
+                if ((imageFlags & 0x80) != 0) pos += 3 * (1 << ((imageFlags & 0x07) + 1)); // 局部颜色表
+                pos = skipSubBlocks(data, pos + 1); // 跳过 LZW 最小码长和图像数据
+                delays.add(pendingDelay < 0 ? 0 : pendingDelay);
+                pendingDelay = -1;
+            } else {
+                break; // 0x3B 结束符或无法识别的块
+            }
+        }
+        return delays;
+    }
+
+    private static int skipSubBlocks(byte[] data, int pos) {
+        while (pos < data.length) {
+            int size = data[pos] & 0xFF;
+            pos += 1 + size;
+            if (size == 0) break;
         }
+        return pos;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateDstRect();
+    }
+
+    private void updateDstRect() {
+        if (frames == null) return;
+        int frameWidth = frames[0].getWidth();
+        int frameHeight = frames[0].getHeight();
+        float scale = Math.min((float) getWidth() / frameWidth, (float) getHeight() / frameHeight);
+        dstRect.set(0, 0, Math.round(frameWidth * scale), Math.round(frameHeight * scale));
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        if (movie != null) {
-            long now = android.os.SystemClock.uptimeMillis();
-            if (movieStart == 0) movieStart = now;
-            int relTime = (int) ((now - movieStart) % movie.duration());
-            movie.setTime(relTime);
-            float scaleX = (float) getWidth() / (float) movie.width();
-            float scaleY = (float) getHeight() / (float) movie.height();
-            canvas.save();
-            canvas.scale(Math.min(scaleX, scaleY), Math.min(scaleX, scaleY));
-            movie.draw(canvas, 0, 0);
-            canvas.restore();
-            invalidate();
+        if (frames == null) return;
+        long start = System.nanoTime();
+        canvas.drawBitmap(frames[frameIndex], null, dstRect, paint);
+        long cost = System.nanoTime() - start;
+        drawCount++;
+        drawNanosTotal += cost;
+        if (cost > drawNanosMax) drawNanosMax = cost;
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateAnimation();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (framesReleased && resId != 0) {
+            framesReleased = false;
+            load();
+        } else {
+            updateAnimation();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        stopAnimation();
+        loadGeneration++;
+        releaseFrames();
+        framesReleased = true;
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * 有多帧、已挂到窗口且可见时播放，否则暂停
+     */
+    private void updateAnimation() {
+        boolean shouldRun = frames != null && frames.length > 1 && isAttachedToWindow() && isShown();
+        if (shouldRun && !running) {
+            running = true;
+            nextFrameAt = SystemClock.uptimeMillis() + frameDelays[frameIndex];
+            postDelayed(advanceFrame, frameDelays[frameIndex]);
+        } else if (!shouldRun && running) {
+            stopAnimation();
+        }
+    }
+
+    private void stopAnimation() {
+        if (!running) return;
+        running = false;
+        removeCallbacks(advanceFrame);
+        if (drawCount > 0) {
+            android.util.Log.d(TAG, "drew " + drawCount + " frames, avg "
+                    + (drawNanosTotal / drawCount / 1000) + "us, max " + (drawNanosMax / 1000) + "us");
         }
+        drawCount = 0;
+        drawNanosTotal = 0;
+        drawNanosMax = 0;
+    }
+
+    /**
+     * 丢弃帧缓存（不主动 recycle，渲染线程可能仍持有上一帧，由 GC 释放）
+     */
+    private void releaseFrames() {
+        frames = null;
+        frameDelays = null;
     }
 }
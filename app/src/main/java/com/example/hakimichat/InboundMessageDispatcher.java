@@ -0,0 +1,108 @@
+package com.example.hakimichat;
+
+import android.view.Choreographer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 网络消息分发器：网络线程收到的消息先入队，每帧（Choreographer 回调）在主线程成批处理
+ * - 一连串消息（如加入房间时的历史消息）只占用少数几帧，不会为每条消息单独 post 和滚动
+ * - 每帧处理时间有上限，剩余的消息留到下一帧，避免突发消息造成掉帧
+ * - 连接、断开等回调也经由 post 进入同一队列，与消息保持原有顺序
+ * 必须在主线程创建。
+ */
+public class InboundMessageDispatcher implements Choreographer.FrameCallback {
+
+    private static final String TAG = "InboundDispatcher";
+    // 每帧用于处理消息的时间上限（纳秒）
+    private static final long FRAME_BUDGET_NANOS = 4_000_000L;
+
+    /**
+     * 消息的处理方，所有回调都在主线程
+     */
+    public interface MessageSink {
+        void onMessage(Message message);
+
+        /**
+         * 一批消息处理完（或在执行经由 post 排队的任务之前）调用，用于一次性刷新界面
+         */
+        void onBatchEnd();
+    }
+
+    private final MessageSink sink;
+    private final Choreographer choreographer;
+    // 元素为 Message 或 Runnable
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+    private volatile boolean released = false;
+
+    public InboundMessageDispatcher(MessageSink sink) {
+        this.sink = sink;
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * 加入一条消息，可在任意线程调用
+     */
+    public void enqueue(Message message) {
+        if (released) return;
+        queue.offer(message);
+        scheduleFrame();
+    }
+
+    /**
+     * 在主线程执行任务，与之前入队的消息保持顺序，可在任意线程调用
+     */
+    public void post(Runnable task) {
+        if (released) return;
+        queue.offer(task);
+        scheduleFrame();
+    }
+
+    /**
+     * 丢弃尚未处理的消息并停止分发（在 onDestroy 中调用）
+     */
+    public void release() {
+        released = true;
+        queue.clear();
+        choreographer.removeFrameCallback(this);
+    }
+
+    private void scheduleFrame() {
+        if (frameScheduled.compareAndSet(false, true)) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled.set(false);
+        if (released) return;
+
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        int handled = 0;
+        Object item;
+        while ((item = queue.poll()) != null) {
+            try {
+                if (item instanceof Message) {
+                    sink.onMessage((Message) item);
+                } else {
+                    sink.onBatchEnd();
+                    ((Runnable) item).run();
+                }
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "处理消息出错", e);
+            }
+            handled++;
+            if (released) return;
+            if (System.nanoTime() > deadline) break;
+        }
+        sink.onBatchEnd();
+
+        if (!queue.isEmpty()) {
+            android.util.Log.d(TAG, "本帧处理 " + handled + " 条，剩余消息顺延到下一帧");
+            scheduleFrame();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.hakimichat;
 import android.Manifest;
 import android.content.Context;
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
@@ -41,6 +42,8 @@ public class MainActivity extends AppCompatActivity {
 
     private String localIpAddress;
     private String currentRoomCode;
+    // 每次获取IP加一，用于丢弃过期的后台结果
+    private int ipLookupGeneration;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,13 +56,16 @@ public class MainActivity extends AppCompatActivity {
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
         
         setContentView(R.layout.activity_main);
+        StartupTracker.trackFirstFrame(this);
 
         initViews();
         setupListeners();
         checkPermissions();
         
-        // 测试房间号编码解码
-        testRoomCodeSystem();
+        // 测试房间号编码解码（仅调试包，在后台执行，不占用启动时间）
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            StartupTracker.runInBackground(this::testRoomCodeSystem);
+        }
     }
     
     private void testRoomCodeSystem() {
@@ -176,53 +182,86 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * 获取本机IP：WiFi 查询和网络接口遍历在后台线程执行，结果回到主线程更新界面
+     */
     private void getLocalIpAddress() {
-        try {
-            // 首先尝试通过WiFi获取IP
-            WifiManager wifiManager = (WifiManager) getApplicationContext()
-                    .getSystemService(Context.WIFI_SERVICE);
-            
-            if (wifiManager != null && wifiManager.isWifiEnabled()) {
-                WifiInfo wifiInfo = wifiManager.getConnectionInfo();
-                int ipAddress = wifiInfo.getIpAddress();
-                
-                if (ipAddress != 0) {
-                    // 兼容不同Android版本的IP格式化方法
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
-                        localIpAddress = Formatter.formatIpAddress(ipAddress);
-                    } else {
-                        localIpAddress = String.format("%d.%d.%d.%d",
-                                (ipAddress & 0xff),
-                                (ipAddress >> 8 & 0xff),
-                                (ipAddress >> 16 & 0xff),
-                                (ipAddress >> 24 & 0xff));
-                    }
-                    tvIpAddress.setText("本机IP: " + localIpAddress + " (WiFi)");
-                    updateRoomCode();
-                    return;
+        final int generation = ++ipLookupGeneration;
+        final long startedAt = android.os.SystemClock.uptimeMillis();
+        tvIpAddress.setText("本机IP: 获取中...");
+        StartupTracker.runInBackground(() -> {
+            String ip = null;
+            boolean viaWifi = false;
+            Exception error = null;
+            try {
+                ip = getWifiIpAddress();
+                viaWifi = ip != null;
+                if (ip == null) {
+                    // WiFi未开启或无IP，尝试获取热点IP（通过NetworkInterface）
+                    ip = getHotspotIpAddress();
                 }
+            } catch (Exception e) {
+                error = e;
             }
-            
-            // WiFi未开启或无IP，尝试获取热点IP（通过NetworkInterface）
-            localIpAddress = getHotspotIpAddress();
-            if (localIpAddress != null) {
-                tvIpAddress.setText("本机IP: " + localIpAddress + " (热点)");
-                updateRoomCode();
-                Toast.makeText(this, "检测到热点模式，其他设备连接您的热点后可加入房间", Toast.LENGTH_LONG).show();
-            } else {
-                // 都没有获取到IP
-                tvIpAddress.setText("本机IP: 未连接网络");
-                tvRoomCode.setText("房间号: 未生成");
-                btnCopyRoomCode.setEnabled(false);
-                Toast.makeText(this, "请开启WiFi或热点", Toast.LENGTH_LONG).show();
-            }
-            
-        } catch (Exception e) {
+            final String foundIp = ip;
+            final boolean foundViaWifi = viaWifi;
+            final Exception lookupError = error;
+            runOnUiThread(() -> {
+                if (generation != ipLookupGeneration || isFinishing() || isDestroyed()) return;
+                applyLocalIpAddress(foundIp, foundViaWifi, lookupError);
+                StartupTracker.mark("本机IP就绪", startedAt);
+            });
+        });
+    }
+
+    /**
+     * 通过WiFi获取IP（在后台线程调用），WiFi未开启或无IP时返回 null
+     */
+    private String getWifiIpAddress() {
+        WifiManager wifiManager = (WifiManager) getApplicationContext()
+                .getSystemService(Context.WIFI_SERVICE);
+        if (wifiManager == null || !wifiManager.isWifiEnabled()) return null;
+
+        WifiInfo wifiInfo = wifiManager.getConnectionInfo();
+        int ipAddress = wifiInfo.getIpAddress();
+        if (ipAddress == 0) return null;
+
+        // 兼容不同Android版本的IP格式化方法
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return Formatter.formatIpAddress(ipAddress);
+        } else {
+            return String.format("%d.%d.%d.%d",
+                    (ipAddress & 0xff),
+                    (ipAddress >> 8 & 0xff),
+                    (ipAddress >> 16 & 0xff),
+                    (ipAddress >> 24 & 0xff));
+        }
+    }
+
+    private void applyLocalIpAddress(String ip, boolean viaWifi, Exception error) {
+        if (error != null) {
             tvIpAddress.setText("本机IP: 获取失败");
             tvRoomCode.setText("房间号: 未生成");
             btnCopyRoomCode.setEnabled(false);
-            Toast.makeText(this, "获取IP地址失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            android.util.Log.e("MainActivity", "获取IP失败", e);
+            Toast.makeText(this, "获取IP地址失败: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            android.util.Log.e("MainActivity", "获取IP失败", error);
+            return;
+        }
+
+        localIpAddress = ip;
+        if (viaWifi) {
+            tvIpAddress.setText("本机IP: " + localIpAddress + " (WiFi)");
+            updateRoomCode();
+        } else if (localIpAddress != null) {
+            tvIpAddress.setText("本机IP: " + localIpAddress + " (热点)");
+            updateRoomCode();
+            Toast.makeText(this, "检测到热点模式，其他设备连接您的热点后可加入房间", Toast.LENGTH_LONG).show();
+        } else {
+            // 都没有获取到IP
+            tvIpAddress.setText("本机IP: 未连接网络");
+            tvRoomCode.setText("房间号: 未生成");
+            btnCopyRoomCode.setEnabled(false);
+            Toast.makeText(this, "请开启WiFi或热点", Toast.LENGTH_LONG).show();
         }
     }
     
@@ -48,6 +48,11 @@ public class Message implements Serializable {
     private String gameName; // 游戏名称（用于显示）
     private boolean gameEnded; // 游戏是否已结束（房主退出）
 
+    // 本地列表中的稳定ID（由 MessageAdapter 分配，不参与序列化）
+    private transient long localId;
+    // 缓存的显示数据（见 MessageRenderModel，不参与序列化）
+    private transient volatile MessageRenderModel renderModel;
+
     public Message(String sender, String content) {
         this.sender = sender;
         this.content = content;
@@ -392,4 +397,20 @@ public class Message implements Serializable {
         message.gameData = "{\"emoji\":\"" + emoji + "\"}";
         return message;
     }
+
+    public long getLocalId() {
+        return localId;
+    }
+
+    public void setLocalId(long localId) {
+        this.localId = localId;
+    }
+
+    public MessageRenderModel getRenderModel() {
+        return renderModel;
+    }
+
+    public void setRenderModel(MessageRenderModel renderModel) {
+        this.renderModel = renderModel;
+    }
 }
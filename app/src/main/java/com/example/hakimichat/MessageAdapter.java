@@ -12,20 +12,27 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
+/**
+ * 聊天消息列表适配器
+ * - 每条消息加入列表时分配本地稳定ID（hasStableIds），RecyclerView 可以复用并正确执行动画
+ * - 单条追加 notifyItemInserted，一帧内收到的多条消息一次追加、只通知一次插入范围
+ * - 维护 gameId → 位置 的索引，更新游戏邀请卡片时不需要遍历全部消息
+ */
 public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private static final int VIEW_TYPE_SENT = 1;
     private static final int VIEW_TYPE_RECEIVED = 2;
     private static final int VIEW_TYPE_GAME_INVITE = 3;
 
     private List<Message> messages;
-    private SimpleDateFormat timeFormat;
     private OnGameActionListener gameActionListener;
+    // 游戏邀请卡片的位置索引
+    private final Map<String, Integer> inviteIndex = new HashMap<>();
+    private long nextLocalId = 1;
     
     // 游戏操作监听器接口
     public interface OnGameActionListener {
@@ -35,7 +42,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     public MessageAdapter() {
         this.messages = new ArrayList<>();
-        this.timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        setHasStableIds(true);
     }
     
     public void setGameActionListener(OnGameActionListener listener) {
@@ -51,11 +58,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
             return VIEW_TYPE_GAME_INVITE;
         }
         
-        int viewType = message.isSentByMe() ? VIEW_TYPE_SENT : VIEW_TYPE_RECEIVED;
-        android.util.Log.d("MessageAdapter", "消息[" + position + "] isSentByMe=" + message.isSentByMe() + 
-                ", viewType=" + (viewType == VIEW_TYPE_SENT ? "SENT" : "RECEIVED") + 
-                ", sender=" + message.getSender() + ", content=" + message.getContent());
-        return viewType;
+        return message.isSentByMe() ? VIEW_TYPE_SENT : VIEW_TYPE_RECEIVED;
     }
 
     @NonNull
@@ -64,7 +67,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         if (viewType == VIEW_TYPE_SENT) {
             View view = LayoutInflater.from(parent.getContext())
                     .inflate(R.layout.item_message_sent, parent, false);
-            return new SentMessageViewHolder(view);
+            return new TextMessageViewHolder(view, true);
         } else if (viewType == VIEW_TYPE_GAME_INVITE) {
             View view = LayoutInflater.from(parent.getContext())
                     .inflate(R.layout.item_message_game_invite, parent, false);
@@ -72,7 +75,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         } else {
             View view = LayoutInflater.from(parent.getContext())
                     .inflate(R.layout.item_message_received, parent, false);
-            return new ReceivedMessageViewHolder(view);
+            return new TextMessageViewHolder(view, false);
         }
     }
 
@@ -80,10 +83,8 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         Message message = messages.get(position);
         
-        if (holder instanceof SentMessageViewHolder) {
-            ((SentMessageViewHolder) holder).bind(message);
-        } else if (holder instanceof ReceivedMessageViewHolder) {
-            ((ReceivedMessageViewHolder) holder).bind(message);
+        if (holder instanceof TextMessageViewHolder) {
+            ((TextMessageViewHolder) holder).bind(message);
         } else if (holder instanceof GameInviteViewHolder) {
             ((GameInviteViewHolder) holder).bind(message);
         }
@@ -94,88 +95,96 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         return messages.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        return messages.get(position).getLocalId();
+    }
+
     public void addMessage(Message message) {
+        assignLocalId(message);
         messages.add(message);
+        indexInvite(message, messages.size() - 1);
         notifyItemInserted(messages.size() - 1);
     }
 
+    /**
+     * 在末尾一次追加多条消息（只通知一次插入范围）
+     */
+    public void addMessages(List<Message> newMessages) {
+        if (newMessages.isEmpty()) return;
+        int start = messages.size();
+        for (Message message : newMessages) {
+            assignLocalId(message);
+            messages.add(message);
+            indexInvite(message, messages.size() - 1);
+        }
+        notifyItemRangeInserted(start, newMessages.size());
+    }
+
     public void clearMessages() {
+        int count = messages.size();
         messages.clear();
-        notifyDataSetChanged();
+        inviteIndex.clear();
+        notifyItemRangeRemoved(0, count);
     }
     
     /**
      * 更新游戏邀请卡片的状态
      */
     public void updateGameInviteCard(String gameId, int currentPlayers, int maxPlayers, boolean gameStarted, boolean gameEnded) {
-        for (int i = 0; i < messages.size(); i++) {
-            Message message = messages.get(i);
-            if (message.getMessageType() == Message.TYPE_GAME_INVITE && 
-                gameId.equals(message.getGameId())) {
-                // 更新消息对象
-                message.setCurrentPlayerCount(currentPlayers);
-                message.setMaxPlayerCount(maxPlayers);
-                message.setGameStarted(gameStarted);
-                message.setGameEnded(gameEnded);
-                // 通知适配器更新该项
-                notifyItemChanged(i);
-                break;
-            }
-        }
+        Integer position = inviteIndex.get(gameId);
+        if (position == null) return;
+        Message message = messages.get(position);
+        // 更新消息对象
+        message.setCurrentPlayerCount(currentPlayers);
+        message.setMaxPlayerCount(maxPlayers);
+        message.setGameStarted(gameStarted);
+        message.setGameEnded(gameEnded);
+        // 通知适配器更新该项
+        notifyItemChanged(position);
     }
 
-    class SentMessageViewHolder extends RecyclerView.ViewHolder {
-        TextView tvSender, tvMessage, tvTimestamp;
-
-        SentMessageViewHolder(@NonNull View itemView) {
-            super(itemView);
-            tvSender = itemView.findViewById(R.id.tvSender);
-            tvMessage = itemView.findViewById(R.id.tvMessage);
-            tvTimestamp = itemView.findViewById(R.id.tvTimestamp);
-        }
+    private void assignLocalId(Message message) {
+        if (message.getLocalId() == 0) message.setLocalId(nextLocalId++);
+    }
 
-        void bind(Message message) {
-            String displayName = "我";
-            if (message.isHost()) {
-                displayName += "（房主）";
-            }
-            tvSender.setText(displayName);
-            tvMessage.setText(message.getContent());
-            tvTimestamp.setText(timeFormat.format(new Date(message.getTimestamp())));
-            
-            // 长按复制消息
-            tvMessage.setOnLongClickListener(v -> {
-                copyToClipboard(v.getContext(), message.getContent());
-                return true;
-            });
+    // 同一 gameId 只索引第一张卡片（与原先线性查找的结果一致）
+    private void indexInvite(Message message, int position) {
+        if (message.getMessageType() == Message.TYPE_GAME_INVITE && message.getGameId() != null
+                && !inviteIndex.containsKey(message.getGameId())) {
+            inviteIndex.put(message.getGameId(), position);
         }
     }
 
-    class ReceivedMessageViewHolder extends RecyclerView.ViewHolder {
+    /**
+     * 文字消息ViewHolder（自己发送和收到的气泡只是布局不同）
+     * 显示数据来自 MessageRenderModel，绑定时只做赋值
+     */
+    class TextMessageViewHolder extends RecyclerView.ViewHolder {
         TextView tvSender, tvMessage, tvTimestamp;
+        Message boundMessage;
 
-        ReceivedMessageViewHolder(@NonNull View itemView) {
+        TextMessageViewHolder(@NonNull View itemView, boolean sentByMe) {
             super(itemView);
             tvSender = itemView.findViewById(R.id.tvSender);
             tvMessage = itemView.findViewById(R.id.tvMessage);
             tvTimestamp = itemView.findViewById(R.id.tvTimestamp);
-        }
+            MessageRenderModel.captureTextParams(tvMessage, sentByMe);
 
-        void bind(Message message) {
-            String displayName = message.getSender();
-            if (message.isHost()) {
-                displayName += "（房主）";
-            }
-            tvSender.setText(displayName);
-            tvMessage.setText(message.getContent());
-            tvTimestamp.setText(timeFormat.format(new Date(message.getTimestamp())));
-            
             // 长按复制消息
             tvMessage.setOnLongClickListener(v -> {
-                copyToClipboard(v.getContext(), message.getContent());
+                if (boundMessage != null) copyToClipboard(v.getContext(), boundMessage.getContent());
                 return true;
             });
         }
+
+        void bind(Message message) {
+            boundMessage = message;
+            MessageRenderModel model = MessageRenderModel.of(message);
+            tvSender.setText(model.displayName);
+            model.applyContent(tvMessage);
+            tvTimestamp.setText(model.timeText);
+        }
     }
     
     /**
@@ -243,8 +252,8 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
             // 注意：上面已根据 gameType 设置了 ivGameIcon；不需要在此处再次覆盖
             
             // 设置发起人信息
-            String senderText = message.getSender() + " 发起了游戏";
-            tvSender.setText(senderText);
+            MessageRenderModel model = MessageRenderModel.of(message);
+            tvSender.setText(model.displayName);
             
             // 设置游戏状态
             int currentPlayers = message.getCurrentPlayerCount();
@@ -265,7 +274,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
             }
             
             // 设置时间戳
-            tvTimestamp.setText(timeFormat.format(new Date(message.getTimestamp())));
+            tvTimestamp.setText(model.timeText);
             
             // 根据游戏状态显示/隐藏按钮
             if (gameEnded) {
@@ -0,0 +1,118 @@
+package com.example.hakimichat;
+
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * 消息的显示数据：格式化后的时间、发送者显示名和正文
+ * 每条消息只计算一次并缓存在 Message 上。网络消息在收到时（网络线程）调用 prepare 预先计算，
+ * 本地消息在第一次绑定时计算；绑定视图时只做赋值。
+ * 已知正文 TextView 的排版参数后，正文预先排版为 PrecomputedText，主线程不再测量文字。
+ */
+public final class MessageRenderModel {
+
+    // SimpleDateFormat 不是线程安全的，每个线程一份
+    private static final ThreadLocal<SimpleDateFormat> TIME_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm", Locale.getDefault());
+        }
+    };
+
+    // 正文 TextView 的排版参数（自己发送/收到的气泡各一份），在创建 ViewHolder 时记录
+    private static volatile PrecomputedTextCompat.Params sentTextParams;
+    private static volatile PrecomputedTextCompat.Params receivedTextParams;
+
+    public final String timeText;
+    public final String displayName;
+    // PrecomputedTextCompat，排版参数未知时为原文
+    public final CharSequence content;
+
+    private MessageRenderModel(String timeText, String displayName, CharSequence content) {
+        this.timeText = timeText;
+        this.displayName = displayName;
+        this.content = content;
+    }
+
+    /**
+     * 取得消息的显示数据，没有缓存时计算并缓存（可在任意线程调用）
+     */
+    public static MessageRenderModel of(Message message) {
+        MessageRenderModel model = message.getRenderModel();
+        if (model == null) {
+            model = build(message);
+            message.setRenderModel(model);
+        }
+        return model;
+    }
+
+    /**
+     * 收到网络消息时预先计算显示数据；不在聊天区显示的消息直接跳过
+     */
+    public static void prepare(Message message) {
+        switch (message.getMessageType()) {
+            case Message.TYPE_NORMAL:
+            case Message.TYPE_HISTORY:
+            case Message.TYPE_GAME_INVITE:
+            case Message.TYPE_GAME_RESTART:
+                of(message);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 记录正文 TextView 的排版参数（只记录第一次）
+     */
+    static void captureTextParams(TextView textView, boolean sentByMe) {
+        if (sentByMe) {
+            if (sentTextParams == null) sentTextParams = TextViewCompat.getTextMetricsParams(textView);
+        } else {
+            if (receivedTextParams == null) receivedTextParams = TextViewCompat.getTextMetricsParams(textView);
+        }
+    }
+
+    /**
+     * 把正文设置到 TextView；预排版参数与 TextView 不一致时退回普通文本
+     */
+    void applyContent(TextView textView) {
+        if (content instanceof PrecomputedTextCompat) {
+            try {
+                TextViewCompat.setPrecomputedText(textView, (PrecomputedTextCompat) content);
+                return;
+            } catch (IllegalArgumentException e) {
+                android.util.Log.w("MessageRenderModel", "排版参数不一致，按普通文本显示", e);
+            }
+        }
+        textView.setText(content.toString());
+    }
+
+    private static MessageRenderModel build(Message message) {
+        String timeText = TIME_FORMAT.get().format(new Date(message.getTimestamp()));
+
+        String displayName;
+        if (message.getMessageType() == Message.TYPE_GAME_INVITE) {
+            displayName = message.getSender() + " 发起了游戏";
+        } else {
+            displayName = message.isSentByMe() ? "我" : message.getSender();
+            if (message.isHost()) {
+                displayName += "（房主）";
+            }
+        }
+
+        String text = message.getContent() == null ? "" : message.getContent();
+        CharSequence content = text;
+        PrecomputedTextCompat.Params params = message.isSentByMe() ? sentTextParams : receivedTextParams;
+        if (params != null && !text.isEmpty() && message.getMessageType() != Message.TYPE_GAME_INVITE) {
+            content = PrecomputedTextCompat.create(text, params);
+        }
+        return new MessageRenderModel(timeText, displayName, content);
+    }
+}
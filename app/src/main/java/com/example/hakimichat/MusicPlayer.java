@@ -1,11 +1,14 @@
 package com.example.hakimichat;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
 import android.media.MediaPlayer;
 import android.util.Log;
 
 /**
- * 简单的全局音乐播放器单例，使用 Application context 播放 raw 资源，播放完成后自动释放。
+ * 简单的全局音乐播放器单例，使用 Application context 流式播放 raw 资源，播放完成后自动释放。
+ * 异步准备（prepareAsync），不在主线程同步解析音频；连续播放时复用同一个 MediaPlayer。
  */
 public class MusicPlayer {
     private static final String TAG = "MusicPlayer";
@@ -25,24 +28,44 @@ public class MusicPlayer {
     public void play(Context ctx, int rawResId) {
         try {
             Log.d(TAG, "play rawResId=" + rawResId);
-            stop();
             Context appCtx = ctx.getApplicationContext();
-            mediaPlayer = MediaPlayer.create(appCtx, rawResId);
             if (mediaPlayer == null) {
-                Log.w(TAG, "MediaPlayer.create returned null");
-                return;
+                mediaPlayer = createPlayer();
+            } else {
+                // 复用当前播放器：reset 会停止正在播放的音乐
+                mediaPlayer.reset();
             }
-            mediaPlayer.setOnCompletionListener(mp -> {
-                try { mp.release(); } catch (Exception ignored) {}
-                mediaPlayer = null;
-            });
-            mediaPlayer.start();
+            try (AssetFileDescriptor afd = appCtx.getResources().openRawResourceFd(rawResId)) {
+                mediaPlayer.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            }
+            mediaPlayer.prepareAsync();
         } catch (Exception e) {
             Log.w(TAG, "failed to start music", e);
             try { if (mediaPlayer != null) { mediaPlayer.release(); mediaPlayer = null; } } catch (Exception ignored) {}
         }
     }
 
+    private MediaPlayer createPlayer() {
+        MediaPlayer mp = new MediaPlayer();
+        mp.setAudioAttributes(new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_MEDIA)
+                .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
+                .build());
+        mp.setOnPreparedListener(MediaPlayer::start);
+        mp.setOnCompletionListener(this::releaseIfCurrent);
+        mp.setOnErrorListener((player, what, extra) -> {
+            Log.w(TAG, "playback error what=" + what + ", extra=" + extra);
+            releaseIfCurrent(player);
+            return true;
+        });
+        return mp;
+    }
+
+    private void releaseIfCurrent(MediaPlayer mp) {
+        try { mp.release(); } catch (Exception ignored) {}
+        if (mediaPlayer == mp) mediaPlayer = null;
+    }
+
     public void stop() {
         if (mediaPlayer != null) {
             try {
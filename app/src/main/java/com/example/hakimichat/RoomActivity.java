@@ -47,6 +47,9 @@ public class RoomActivity extends AppCompatActivity {
     private ClientManager clientManager;
     private Handler mainHandler;
     private com.example.hakimichat.game.GameManager gameManager;  // 游戏管理器
+    // 网络消息按帧成批处理；一批中要显示的聊天消息先暂存，批末一次插入
+    private InboundMessageDispatcher inboundDispatcher;
+    private final java.util.List<Message> pendingChatMessages = new java.util.ArrayList<>();
 
     private boolean isHost;
     private String serverIp;
@@ -62,9 +65,11 @@ public class RoomActivity extends AppCompatActivity {
     private MemberListAdapter memberListAdapter;
     private android.widget.ListView memberListView; // 成员列表视图
     private android.widget.TextView tvMemberCountInDialog; // 对话框中的成员数量显示
+    private long createdAt; // onCreate 的时间，用于记录房间就绪耗时
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        createdAt = android.os.SystemClock.uptimeMillis();
         // 应用主题
         ThemeManager.getInstance(this).initTheme();
         
@@ -75,6 +80,7 @@ public class RoomActivity extends AppCompatActivity {
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
         
         setContentView(R.layout.activity_room);
+        StartupTracker.trackFirstFrame(this);
         
         // 设置传统的键盘检测（适配所有Android版本）
         setupKeyboardDetection();
@@ -85,6 +91,22 @@ public class RoomActivity extends AppCompatActivity {
         setupRecyclerView();
         setupListeners();
         
+        inboundDispatcher = new InboundMessageDispatcher(new InboundMessageDispatcher.MessageSink() {
+            @Override
+            public void onMessage(Message message) {
+                if (isHost) {
+                    handleHostMessage(message);
+                } else {
+                    handleClientMessage(message);
+                }
+            }
+
+            @Override
+            public void onBatchEnd() {
+                flushPendingChatMessages();
+            }
+        });
+        
         if (isHost) {
             startAsHost();
         } else {
@@ -726,72 +748,14 @@ public class RoomActivity extends AppCompatActivity {
         serverManager = new ServerManager(new ServerManager.MessageListener() {
             @Override
             public void onMessageReceived(Message message) {
-                mainHandler.post(() -> {
-                    // 处理不同类型的消息
-                    if (message.getMessageType() == Message.TYPE_USER_COUNT) {
-                        // 在线人数更新消息，不显示在聊天列表中
-                        connectedUserCount = message.getUserCount();
-                        updateUserCount();
-                        android.util.Log.d("RoomActivity", "收到人数更新: " + connectedUserCount);
-                    } else if (message.getMessageType() == Message.TYPE_MEMBER_LIST) {
-                        // 成员列表消息
-                        android.util.Log.d("RoomActivity", "房主收到成员列表更新消息");
-                        String[] members = message.getContent().split(",");
-                        updateMemberList(members);
-                    } else if (message.getMessageType() == Message.TYPE_KICK) {
-                        // 房主不应该收到踢人消息，如果收到说明逻辑有问题
-                        String targetNickname = message.getTargetNickname();
-                        android.util.Log.e("RoomActivity", "!!! 房主收到踢人消息 !!! 目标: " + targetNickname + ", 房主昵称: " + username);
-                        // 检查是不是自己被踢
-                        if (targetNickname != null && targetNickname.equals(username)) {
-                            android.util.Log.e("RoomActivity", "!!! 房主被踢出 !!! 这不应该发生");
-                        }
-                    } else if (message.getMessageType() == Message.TYPE_HISTORY) {
-                        // 历史消息（房主不应该收到历史消息，但为了代码健壮性还是处理一下）
-                        android.util.Log.d("RoomActivity", "收到历史消息: " + message.getContent());
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_INVITE) {
-                        // 游戏邀请消息
-                        handleGameInvite(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_JOIN) {
-                        // 加入游戏消息
-                        gameManager.handleGameJoin(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_MOVE) {
-                        // 游戏移动消息
-                        gameManager.handleGameMove(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_EMOJI) {
-                        // 游戏表情消息：只处理游戏事件，不在聊天区显示系统提示
-                        gameManager.handleGameEmoji(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_STATE) {
-                        // 游戏状态同步消息
-                        gameManager.handleGameState(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_END) {
-                        // 游戏结束消息
-                        gameManager.handleGameEnd(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_QUIT) {
-                        // 退出游戏消息
-                        gameManager.handleGameQuit(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_SPECTATE) {
-                        // 观战消息
-                        gameManager.handleSpectate(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_RESTART) {
-                        // 再来一局消息
-                        gameManager.handleGameRestart(message);
-                        // 在聊天区显示提示
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    } else {
-                        // 普通消息，添加到列表
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    }
-                });
+                // 在网络线程预先计算显示数据，主线程绑定时只做赋值
+                MessageRenderModel.prepare(message);
+                inboundDispatcher.enqueue(message);
             }
 
             @Override
             public void onClientConnected(String clientInfo) {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     // 房主端：1(自己) + 连接的客户端数量
                     int clientCount = serverManager.getConnectedClientCount();
                     connectedUserCount = 1 + clientCount;
@@ -807,7 +771,7 @@ public class RoomActivity extends AppCompatActivity {
 
             @Override
             public void onClientDisconnected(String clientInfo) {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     // 房主端：1(自己) + 连接的客户端数量
                     int clientCount = serverManager.getConnectedClientCount();
                     connectedUserCount = 1 + clientCount;
@@ -840,6 +804,7 @@ public class RoomActivity extends AppCompatActivity {
         
         // 初始化GameManager
         gameManager.init(username, true, serverManager, null);
+        StartupTracker.mark("房间就绪（房主）", createdAt);
     }
 
     private void startAsClient() {
@@ -854,83 +819,19 @@ public class RoomActivity extends AppCompatActivity {
         clientManager = new ClientManager(new ClientManager.MessageListener() {
             @Override
             public void onMessageReceived(Message message) {
-                mainHandler.post(() -> {
-                    // 如果已被踢出，忽略所有消息
-                    if (hasBeenKicked) {
-                        android.util.Log.w("RoomActivity", "已被踢出，忽略消息");
-                        return;
-                    }
-                    
-                    // 处理不同类型的消息
-                    if (message.getMessageType() == Message.TYPE_USER_COUNT) {
-                        // 在线人数更新消息，不显示在聊天列表中
-                        connectedUserCount = message.getUserCount();
-                        updateUserCount();
-                        android.util.Log.d("RoomActivity", "客户端收到人数更新: " + connectedUserCount);
-                    } else if (message.getMessageType() == Message.TYPE_MEMBER_LIST) {
-                        android.util.Log.d("RoomActivity", "客户端收到成员列表更新消息");
-                        String[] members = message.getContent().split(",");
-                        updateMemberList(members);
-                    } else if (message.getMessageType() == Message.TYPE_KICK) {
-                        // 被踢出通知：只做前端提示与禁用，等待断开回调统一收尾
-                        String targetNickname = message.getTargetNickname();
-                        android.util.Log.d("RoomActivity", "客户端收到踢人消息, 目标: " + targetNickname + ", 我的昵称: " + username);
-                        if (targetNickname != null && targetNickname.equals(username)) {
-                            hasBeenKicked = true;
-                            showToast("你已被房主踢出房间");
-                            etMessage.setEnabled(false);
-                            btnSend.setEnabled(false);
-                            etMessage.setText("");
-                        }
-                    } else if (message.getMessageType() == Message.TYPE_HISTORY) {
-                        // 历史消息，添加到列表
-                        android.util.Log.d("RoomActivity", "收到历史消息: " + message.getContent());
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_INVITE) {
-                        // 游戏邀请消息
-                        handleGameInvite(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_JOIN) {
-                        // 加入游戏消息
-                        gameManager.handleGameJoin(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_MOVE) {
-                        // 游戏移动消息
-                        gameManager.handleGameMove(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_EMOJI) {
-                        // 游戏表情消息：只处理游戏事件，不在聊天区显示系统提示
-                        gameManager.handleGameEmoji(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_STATE) {
-                        // 游戏状态同步消息
-                        gameManager.handleGameState(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_END) {
-                        // 游戏结束消息
-                        gameManager.handleGameEnd(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_QUIT) {
-                        // 玩家退出游戏
-                        gameManager.handleGameQuit(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_SPECTATE) {
-                        // 观战消息
-                        gameManager.handleSpectate(message);
-                    } else if (message.getMessageType() == Message.TYPE_GAME_RESTART) {
-                        // 重新开始游戏
-                        gameManager.handleGameRestart(message);
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    } else {
-                        // 普通消息，添加到列表
-                        messageAdapter.addMessage(message);
-                        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
-                    }
-                });
+                // 在网络线程预先计算显示数据，主线程绑定时只做赋值
+                MessageRenderModel.prepare(message);
+                inboundDispatcher.enqueue(message);
             }
 
             @Override
             public void onConnected() {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     connectedUserCount = 2; // 初始假设房主+自己，等待房主广播实际人数
                     updateUserCount();
                     tvConnectionStatus.setText("状态: 已连接");
                     showToast("已连接到房间");
+                    StartupTracker.mark("房间就绪（已连接）", createdAt);
                     
                     // 发送昵称检查请求
                     if (clientManager != null) {
@@ -942,7 +843,7 @@ public class RoomActivity extends AppCompatActivity {
 
             @Override
             public void onNicknameValidated(String validatedNickname) {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     // 更新本地昵称为验证后的昵称
                     username = validatedNickname;
                     android.util.Log.d("RoomActivity", "昵称验证完成: " + validatedNickname);
@@ -955,7 +856,7 @@ public class RoomActivity extends AppCompatActivity {
 
             @Override
             public void onDisconnected() {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     if (hasBeenKicked) {
                         android.util.Log.d("RoomActivity", "被踢出后收到断开回调，关闭房间页面");
                         finish();
@@ -968,7 +869,7 @@ public class RoomActivity extends AppCompatActivity {
 
             @Override
             public void onConnectionError(String error) {
-                mainHandler.post(() -> {
+                inboundDispatcher.post(() -> {
                     // 如果已被踢出，不显示错误提示
                     if (hasBeenKicked) {
                         android.util.Log.d("RoomActivity", "已被踢出，忽略连接错误回调");
@@ -983,6 +884,147 @@ public class RoomActivity extends AppCompatActivity {
         clientManager.connect(serverIp);
     }
 
+    /**
+     * 房主端处理一条网络消息（由 inboundDispatcher 在主线程调用）
+     */
+    private void handleHostMessage(Message message) {
+        // 处理不同类型的消息
+        if (message.getMessageType() == Message.TYPE_USER_COUNT) {
+            // 在线人数更新消息，不显示在聊天列表中
+            connectedUserCount = message.getUserCount();
+            updateUserCount();
+            android.util.Log.d("RoomActivity", "收到人数更新: " + connectedUserCount);
+        } else if (message.getMessageType() == Message.TYPE_MEMBER_LIST) {
+            // 成员列表消息
+            android.util.Log.d("RoomActivity", "房主收到成员列表更新消息");
+            String[] members = message.getContent().split(",");
+            updateMemberList(members);
+        } else if (message.getMessageType() == Message.TYPE_KICK) {
+            // 房主不应该收到踢人消息，如果收到说明逻辑有问题
+            String targetNickname = message.getTargetNickname();
+            android.util.Log.e("RoomActivity", "!!! 房主收到踢人消息 !!! 目标: " + targetNickname + ", 房主昵称: " + username);
+            // 检查是不是自己被踢
+            if (targetNickname != null && targetNickname.equals(username)) {
+                android.util.Log.e("RoomActivity", "!!! 房主被踢出 !!! 这不应该发生");
+            }
+        } else if (message.getMessageType() == Message.TYPE_HISTORY) {
+            // 历史消息（房主不应该收到历史消息，但为了代码健壮性还是处理一下）
+            android.util.Log.d("RoomActivity", "收到历史消息: " + message.getContent());
+            pendingChatMessages.add(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_INVITE) {
+            // 游戏邀请消息
+            handleGameInvite(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_JOIN) {
+            // 加入游戏消息
+            gameManager.handleGameJoin(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_MOVE) {
+            // 游戏移动消息
+            gameManager.handleGameMove(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_EMOJI) {
+            // 游戏表情消息：只处理游戏事件，不在聊天区显示系统提示
+            gameManager.handleGameEmoji(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_STATE) {
+            // 游戏状态同步消息
+            gameManager.handleGameState(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_END) {
+            // 游戏结束消息
+            gameManager.handleGameEnd(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_QUIT) {
+            // 退出游戏消息
+            gameManager.handleGameQuit(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_SPECTATE) {
+            // 观战消息
+            gameManager.handleSpectate(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_RESTART) {
+            // 再来一局消息
+            gameManager.handleGameRestart(message);
+            // 在聊天区显示提示
+            pendingChatMessages.add(message);
+        } else {
+            // 普通消息，添加到列表
+            pendingChatMessages.add(message);
+        }
+    }
+
+    /**
+     * 客户端处理一条网络消息（由 inboundDispatcher 在主线程调用）
+     */
+    private void handleClientMessage(Message message) {
+        // 如果已被踢出，忽略所有消息
+        if (hasBeenKicked) {
+            android.util.Log.w("RoomActivity", "已被踢出，忽略消息");
+            return;
+        }
+
+        // 处理不同类型的消息
+        if (message.getMessageType() == Message.TYPE_USER_COUNT) {
+            // 在线人数更新消息，不显示在聊天列表中
+            connectedUserCount = message.getUserCount();
+            updateUserCount();
+            android.util.Log.d("RoomActivity", "客户端收到人数更新: " + connectedUserCount);
+        } else if (message.getMessageType() == Message.TYPE_MEMBER_LIST) {
+            android.util.Log.d("RoomActivity", "客户端收到成员列表更新消息");
+            String[] members = message.getContent().split(",");
+            updateMemberList(members);
+        } else if (message.getMessageType() == Message.TYPE_KICK) {
+            // 被踢出通知：只做前端提示与禁用，等待断开回调统一收尾
+            String targetNickname = message.getTargetNickname();
+            android.util.Log.d("RoomActivity", "客户端收到踢人消息, 目标: " + targetNickname + ", 我的昵称: " + username);
+            if (targetNickname != null && targetNickname.equals(username)) {
+                hasBeenKicked = true;
+                showToast("你已被房主踢出房间");
+                etMessage.setEnabled(false);
+                btnSend.setEnabled(false);
+                etMessage.setText("");
+            }
+        } else if (message.getMessageType() == Message.TYPE_HISTORY) {
+            // 历史消息，添加到列表
+            android.util.Log.d("RoomActivity", "收到历史消息: " + message.getContent());
+            pendingChatMessages.add(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_INVITE) {
+            // 游戏邀请消息
+            handleGameInvite(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_JOIN) {
+            // 加入游戏消息
+            gameManager.handleGameJoin(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_MOVE) {
+            // 游戏移动消息
+            gameManager.handleGameMove(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_EMOJI) {
+            // 游戏表情消息：只处理游戏事件，不在聊天区显示系统提示
+            gameManager.handleGameEmoji(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_STATE) {
+            // 游戏状态同步消息
+            gameManager.handleGameState(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_END) {
+            // 游戏结束消息
+            gameManager.handleGameEnd(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_QUIT) {
+            // 玩家退出游戏
+            gameManager.handleGameQuit(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_SPECTATE) {
+            // 观战消息
+            gameManager.handleSpectate(message);
+        } else if (message.getMessageType() == Message.TYPE_GAME_RESTART) {
+            // 重新开始游戏
+            gameManager.handleGameRestart(message);
+            pendingChatMessages.add(message);
+        } else {
+            // 普通消息，添加到列表
+            pendingChatMessages.add(message);
+        }
+    }
+
+    /**
+     * 把本批网络消息中需要显示的聊天消息一次插入列表，只滚动一次
+     */
+    private void flushPendingChatMessages() {
+        if (pendingChatMessages.isEmpty() || messageAdapter == null) return;
+        messageAdapter.addMessages(pendingChatMessages);
+        pendingChatMessages.clear();
+        recyclerViewMessages.smoothScrollToPosition(messageAdapter.getItemCount() - 1);
+    }
+
     private void sendMessage() {
         String content = etMessage.getText().toString().trim();
         
@@ -1230,11 +1272,7 @@ public class RoomActivity extends AppCompatActivity {
             holder.tvMemberName.setText(memberName);
 
             // 设置头像（显示昵称的第一个字符）
-            if (memberName != null && !memberName.isEmpty()) {
-                holder.tvAvatar.setText(memberName.substring(0, 1));
-            } else {
-                holder.tvAvatar.setText("?");
-            }
+            AvatarGlyphCache.bind(holder.tvAvatar, memberName != null ? memberName : "");
 
             // 第一个成员是房主，显示房主标识
             if (position == 0) {
@@ -1283,6 +1321,10 @@ public class RoomActivity extends AppCompatActivity {
             android.util.Log.d("RoomActivity", "已移除全局布局监听器");
         }
         
+        if (inboundDispatcher != null) {
+            inboundDispatcher.release();
+        }
+        
         if (serverManager != null) {
             try {
                 serverManager.stopServer();
@@ -1340,7 +1382,7 @@ public class RoomActivity extends AppCompatActivity {
     /**
      * 显示玩家选择对话框（邀请谁一起玩）
      * @return true 如果已经展示/启动了玩家选择或单机流程（表示可以隐藏游戏面板）；
-     *         false 如果没有任何后续操作（例如国际象棋在房间只有自己时）
+     *         false 如果没有任何后续操作
      */
     private boolean showPlayerSelectionDialog(com.example.hakimichat.game.GameListAdapter.GameInfo gameInfo) {
         // 获取房间成员列表（除了自己）
@@ -1348,13 +1390,7 @@ public class RoomActivity extends AppCompatActivity {
         availablePlayers.remove(username);
         
         if (availablePlayers.isEmpty()) {
-            // 如果是国际象棋，提示仅支持双人并返回；其他游戏仍可以进入单机模式
-            if ("Chess".equals(gameInfo.gameType)) {
-                showToast("当前游戏仅支持双人对战");
-                return false;
-            }
-
-            // 提示并自动进入单机模式（针对支持单机的人机对战的游戏）
+            // 提示并自动进入单机模式（所有游戏都支持人机对战）
             showToast("房间里没有其他玩家，进入单机模式吧！");
             // 延迟一点再进入，保证 Toast 可见
             new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
@@ -1364,7 +1400,7 @@ public class RoomActivity extends AppCompatActivity {
         }
         
         // 添加"所有人"选项，若游戏支持单机（人机对战）再添加单机选项
-        boolean supportsSinglePlayer = !"Chess".equals(gameInfo.gameType);
+        boolean supportsSinglePlayer = true;
         int extra = supportsSinglePlayer ? 2 : 1; // 1 for "所有人" + players, +1 for 单机
         String[] playerOptions = new String[availablePlayers.size() + extra];
         playerOptions[0] = "所有人（谁先加入谁玩）";
@@ -1467,6 +1503,8 @@ public class RoomActivity extends AppCompatActivity {
         // 在添加玩家之前先设置AI模式，防止随机黑白方逻辑生效
         if (game instanceof com.example.hakimichat.game.GobangGame) {
             ((com.example.hakimichat.game.GobangGame) game).setAiMode(true, username);
+        } else if (game instanceof com.example.hakimichat.game.ChessGame) {
+            ((com.example.hakimichat.game.ChessGame) game).setAiMode(true, username);
         }
 
         // 根据玩家选择的颜色/符号决定加入顺序
@@ -1531,8 +1569,8 @@ public class RoomActivity extends AppCompatActivity {
         // 缓存游戏类型，以便后续创建游戏实例
         gameTypeCache.put(gameId, gameType);
         
-        // 直接显示游戏邀请卡片消息（不再显示额外的系统消息）
-        messageAdapter.addMessage(message);
+        // 直接显示游戏邀请卡片消息（不再显示额外的系统消息），与同一批的聊天消息一起插入
+        pendingChatMessages.add(message);
         
         // 如果是邀请所有人，或者邀请的就是自己，同时弹出对话框
         if (invitedPlayer == null || invitedPlayer.equals(username)) {
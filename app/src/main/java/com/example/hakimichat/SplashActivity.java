@@ -19,6 +19,7 @@ import java.util.Random;
  * - 在中间播放 icon.gif（使用 GifView）
  * - 可选地播放 res/raw 中指定的音乐，随机选择
  * - 支持最小动画时长配置（毫秒），并在音乐播放完毕后结束
+ * - 点击屏幕可跳过；音乐资源的查找在后台线程进行，不占用首帧时间
  */
 public class SplashActivity extends AppCompatActivity {
     private static final String TAG = "SplashActivity";
@@ -26,6 +27,8 @@ public class SplashActivity extends AppCompatActivity {
     private GifView gifView;
     // music playback now handled by MusicPlayer singleton so audio can continue after splash
     private boolean minDurationElapsed = false;
+    // 已跳转到主界面（计时结束和点击跳过只生效一次）
+    private boolean leaving = false;
     private Handler handler = new Handler();
 
     @Override
@@ -33,10 +36,14 @@ public class SplashActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         Log.d(TAG, "onCreate");
         setContentView(R.layout.activity_splash);
+        StartupTracker.trackFirstFrame(this);
 
         gifView = findViewById(R.id.gifView);
         gifView.setGifResource(R.drawable.icon);
 
+        // 点击屏幕跳过启动动画
+        findViewById(android.R.id.content).setOnClickListener(v -> startMainAndFinish());
+
         // 最小显示时长（毫秒）: 优先级 — intent extra > shared prefs > default resource
         int minDuration = getIntent().getIntExtra("splash_duration_ms", -1);
         if (minDuration <= 0) {
@@ -60,15 +67,18 @@ public class SplashActivity extends AppCompatActivity {
         }, minDuration);
 
         // 尝试播放随机音乐（如果配置了），但不必等音乐结束再结束启动画面。
-        List<Integer> musicRes = collectMusicResIds();
-        Log.d(TAG, "found music count=" + musicRes.size());
-        if (!musicRes.isEmpty()) {
-            int idx = new Random().nextInt(musicRes.size());
-            int resId = musicRes.get(idx);
-            Log.d(TAG, "playing splash music resId=" + resId);
-            // 使用 MusicPlayer 单例播放，这样音乐在 SplashActivity 结束后还能继续
-            MusicPlayer.getInstance().play(this, resId);
-        }
+        // getIdentifier 按名称查找资源较慢，放到后台线程
+        StartupTracker.runInBackground(() -> {
+            List<Integer> musicRes = collectMusicResIds();
+            Log.d(TAG, "found music count=" + musicRes.size());
+            if (!musicRes.isEmpty()) {
+                int idx = new Random().nextInt(musicRes.size());
+                int resId = musicRes.get(idx);
+                Log.d(TAG, "playing splash music resId=" + resId);
+                // 使用 MusicPlayer 单例播放，这样音乐在 SplashActivity 结束后还能继续
+                runOnUiThread(() -> MusicPlayer.getInstance().play(this, resId));
+            }
+        });
     }
 
     private List<Integer> collectMusicResIds() {
@@ -95,6 +105,8 @@ public class SplashActivity extends AppCompatActivity {
     }
 
     private void startMainAndFinish() {
+        if (leaving) return;
+        leaving = true;
         // 不在此处停止音乐，MusicPlayer 管理播放周期，音乐在主界面继续播放直到完成或被其他逻辑停止
         Intent it = new Intent(this, MainActivity.class);
         startActivity(it);
@@ -0,0 +1,78 @@
+package com.example.hakimichat;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 启动流程辅助：后台初始化线程和启动耗时统计
+ * - runInBackground：不影响首帧的工作（资源查找、网络接口遍历、自检等）放到后台线程依次执行
+ * - trackFirstFrame / mark：把首帧时间、房间就绪时间写入日志（TAG 为 "Startup"），
+ *   同时给出距进程启动的时间，便于用 logcat 对比冷启动耗时
+ */
+public final class StartupTracker {
+    private static final String TAG = "Startup";
+
+    // 启动阶段共用的后台线程
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor();
+    // 进程内第一个界面的首帧只记录一次（只在主线程访问）
+    private static boolean firstFrameReported = false;
+
+    private StartupTracker() {}
+
+    /**
+     * 在后台线程执行初始化任务，结果需要更新界面时由任务自己切回主线程
+     */
+    public static void runInBackground(Runnable task) {
+        BACKGROUND.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, "后台初始化任务出错", e);
+            }
+        });
+    }
+
+    /**
+     * 距进程启动的时间（毫秒）
+     */
+    public static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+
+    /**
+     * 记录 Activity 的首帧时间，在 onCreate 中调用
+     */
+    public static void trackFirstFrame(Activity activity) {
+        final String name = activity.getClass().getSimpleName();
+        final long createdAt = SystemClock.uptimeMillis();
+        final View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                if (!firstFrameReported) {
+                    firstFrameReported = true;
+                    Log.i(TAG, "冷启动首帧 (" + name + "): 进程启动后 " + sinceProcessStart() + "ms");
+                }
+                Log.i(TAG, name + " 首帧: onCreate 后 " + (SystemClock.uptimeMillis() - createdAt) + "ms");
+                return true;
+            }
+        });
+    }
+
+    /**
+     * 记录一个启动阶段的完成时间
+     * @param startUptime 该阶段的起点（SystemClock.uptimeMillis）
+     */
+    public static void mark(String event, long startUptime) {
+        Log.i(TAG, event + ": " + (SystemClock.uptimeMillis() - startUptime) + "ms（进程启动后 "
+                + sinceProcessStart() + "ms）");
+    }
+}
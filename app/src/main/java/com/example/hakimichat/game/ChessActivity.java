@@ -14,17 +14,22 @@ import android.graphics.Color;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.hakimichat.AvatarGlyphCache;
 import com.example.hakimichat.R;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class ChessActivity extends AppCompatActivity {
 
     public static final String EXTRA_GAME_ID = "game_id";
     public static final String EXTRA_USERNAME = "username";
     public static final String EXTRA_IS_SPECTATOR = "is_spectator";
+    public static final String EXTRA_IS_SINGLE_PLAYER = "is_single_player";
     private ChessBoardView boardView;
     private TextView tvGameStatus, tvWhitePlayer, tvBlackPlayer, tvSpectators;
     private TextView ivWhiteAvatar, ivBlackAvatar;
@@ -35,10 +40,15 @@ public class ChessActivity extends AppCompatActivity {
     private String gameId;
     private String username;
     private boolean isSpectator;
+    private boolean isSinglePlayer;
     private ChessGame game;
     private GameManager gameManager;
     private Handler mainHandler;
 
+    // AI在单线程执行器上搜索，保证引擎不会被并发访问
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor();
+    private boolean isAiThinking = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -48,6 +58,7 @@ public class ChessActivity extends AppCompatActivity {
     gameId = getIntent().getStringExtra(EXTRA_GAME_ID);
     username = getIntent().getStringExtra(EXTRA_USERNAME);
     isSpectator = getIntent().getBooleanExtra(EXTRA_IS_SPECTATOR, false);
+    isSinglePlayer = getIntent().getBooleanExtra(EXTRA_IS_SINGLE_PLAYER, false);
 
         mainHandler = new Handler(Looper.getMainLooper());
         gameManager = GameManager.getInstance();
@@ -73,6 +84,13 @@ public class ChessActivity extends AppCompatActivity {
             return;
         }
 
+        // 如果是单机模式且轮到AI先手（玩家执黑），触发AI走棋
+        if (isSinglePlayer && game.getPlayers().size() >= 2) {
+            String currentPlayer = game.getCurrentPlayer();
+            if (currentPlayer != null && !currentPlayer.equals(username)) {
+                mainHandler.post(this::performAIMove);
+            }
+        }
 
         // 设置游戏状态监听器（支持 emojiEvent）
         gameManager.setGameStateListener(gameId, new GameManager.GameStateListener() {
@@ -227,6 +245,57 @@ public class ChessActivity extends AppCompatActivity {
 
         // 发送移动到GameManager
         gameManager.sendGameMove(gameId, username, moveData);
+
+        // 如果是单机模式，触发AI回复
+        if (isSinglePlayer) {
+            mainHandler.post(this::performAIMove);
+        }
+    }
+
+    private void performAIMove() {
+        if (!isSinglePlayer || game == null || game.isGameOver()) return;
+
+        String current = game.getCurrentPlayer();
+        java.util.List<String> players = game.getPlayers();
+        if (current == null || players.size() < 2) return;
+
+        // 找到AI玩家（不是当前用户的那个），只有轮到AI时才走棋
+        String aiName = null;
+        for (String player : players) {
+            if (!player.equals(username)) {
+                aiName = player;
+                break;
+            }
+        }
+        if (aiName == null || !aiName.equals(current)) return;
+
+        // 已经在计算中（走棋后的状态回调可能再次触发）
+        if (isAiThinking) return;
+        isAiThinking = true;
+
+        final String aiPlayer = aiName;
+        final ChessPosition snapshot = game.getPositionSnapshot();
+        // 在提交任务前清除停止请求，之后 onDestroy 发出的 stop 不会被搜索线程吞掉
+        game.prepareAiMove();
+        aiExecutor.execute(() -> {
+            int aiMove = game.getAiMove(snapshot);
+            mainHandler.post(() -> {
+                isAiThinking = false;
+                if (isFinishing() || aiMove == ChessMove.NONE) return;
+                try {
+                    int from = ChessMove.from(aiMove), to = ChessMove.to(aiMove);
+                    JSONObject moveData = new JSONObject();
+                    moveData.put("fromRow", from / ChessGame.BOARD_SIZE);
+                    moveData.put("fromCol", from % ChessGame.BOARD_SIZE);
+                    moveData.put("toRow", to / ChessGame.BOARD_SIZE);
+                    moveData.put("toCol", to % ChessGame.BOARD_SIZE);
+                    if (ChessMove.isPromotion(aiMove)) moveData.put("promotion", ChessMove.promotionType(aiMove));
+                    gameManager.sendGameMove(gameId, aiPlayer, moveData);
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            });
+        });
     }
 
     private void handleIncomingEmoji(String sender, String emoji) {
@@ -385,24 +454,10 @@ public class ChessActivity extends AppCompatActivity {
         tvWhitePlayer.setText("白方: " + (game.getWhitePlayerName() != null ? game.getWhitePlayerName() : "等待中"));
         tvBlackPlayer.setText("黑方: " + (game.getBlackPlayerName() != null ? game.getBlackPlayerName() : "等待中"));
 
-        // 设置头像文字（显示昵称首字或"电"表示电脑），与其他游戏 Activity 保持一致
+        // 设置头像（显示昵称首字或"电"表示电脑），与其他游戏 Activity 保持一致
         try {
-            String whitePlayer = game.getWhitePlayerName();
-            String blackPlayer = game.getBlackPlayerName();
-
-            if (whitePlayer != null) {
-                String display = whitePlayer.startsWith("电脑") ? "电" : (whitePlayer.isEmpty() ? "?" : String.valueOf(whitePlayer.charAt(0)));
-                ivWhiteAvatar.setText(display);
-            } else {
-                ivWhiteAvatar.setText("");
-            }
-
-            if (blackPlayer != null) {
-                String display = blackPlayer.startsWith("电脑") ? "电" : (blackPlayer.isEmpty() ? "?" : String.valueOf(blackPlayer.charAt(0)));
-                ivBlackAvatar.setText(display);
-            } else {
-                ivBlackAvatar.setText("");
-            }
+            AvatarGlyphCache.bind(ivWhiteAvatar, game.getWhitePlayerName());
+            AvatarGlyphCache.bind(ivBlackAvatar, game.getBlackPlayerName());
         } catch (Exception ignore) {
             // ignore avatar rendering issues
         }
@@ -447,6 +502,14 @@ public class ChessActivity extends AppCompatActivity {
         if (game != null) {
             game.setGameState(gameState);
             updateUI();
+
+            // 单机模式：如果现在轮到AI，则执行AI走棋
+            if (isSinglePlayer && !game.isGameOver()) {
+                String current = game.getCurrentPlayer();
+                if (game.getPlayers().size() >= 2 && current != null && !current.equals(username)) {
+                    mainHandler.post(this::performAIMove);
+                }
+            }
         }
     }
 
@@ -457,6 +520,8 @@ public class ChessActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (game != null) game.stopAi();
+        aiExecutor.shutdownNow();
         if (gameManager != null && gameId != null) {
             gameManager.removeGameStateListener(gameId);
 
@@ -465,6 +530,14 @@ public class ChessActivity extends AppCompatActivity {
                     // 观战者退出 - 更新本地并广播状态让其他人知道
                     game.removeSpectator(username);
                     gameManager.broadcastGameState(gameId);
+                } else if (isSinglePlayer) {
+                    // 单机模式下只在本地移除玩家和AI
+                    game.removePlayer(username);
+                    for (String p : new java.util.ArrayList<>(game.getPlayers())) {
+                        if (p != null && p.startsWith("电脑")) {
+                            game.removePlayer(p);
+                        }
+                    }
                 } else {
                     // 玩家退出 - 通知 GameManager（会在服务器端/房间内广播并统一处理）
                     gameManager.quitGame(gameId, username);
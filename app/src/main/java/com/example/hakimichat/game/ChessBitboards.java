@@ -0,0 +1,132 @@
+package com.example.hakimichat.game;
+
+/**
+ * 国际象棋位棋盘工具
+ * 格子编号 sq = row * 8 + col，与 ChessGame 的 board[row][col] 一致：
+ * 第 0 行为黑方底线（第 8 横线），第 7 行为白方底线（第 1 横线）。
+ * 马、王、兵的攻击范围预先计算成表；车、象、后的攻击用预计算的射线表求出：
+ * 沿射线取第一个阻挡子，再用阻挡子处同方向的射线去掉其后方的格子，不需要逐格扫描。
+ * 另有两格之间（BETWEEN）和两格所在直线（LINE）的表，用于生成将军与牵制的掩码。
+ */
+public final class ChessBitboards {
+
+    public static final int SQUARES = 64;
+
+    // 射线方向：北(-8) 南(+8) 西(-1) 东(+1) 西北(-9) 东北(-7) 西南(+7) 东南(+9)，北为第 0 行方向
+    private static final int NORTH = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int EAST = 3;
+    private static final int NORTH_WEST = 4;
+    private static final int NORTH_EAST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+    private static final int[][] DIRECTION_STEPS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[SQUARES];
+    private static final long[] KING_ATTACKS = new long[SQUARES];
+    // PAWN_ATTACKS[color][sq]：位于 sq 的该方兵能吃到的格子
+    private static final long[][] PAWN_ATTACKS = new long[2][SQUARES];
+    private static final long[][] RAYS = new long[8][SQUARES];
+    // 与 DIRECTION_STEPS 一一对应的反方向
+    private static final int[] OPPOSITE = {SOUTH, NORTH, EAST, WEST, SOUTH_EAST, SOUTH_WEST, NORTH_EAST, NORTH_WEST};
+    // BETWEEN[a][b]：a、b 同线时严格位于两者之间的格子，否则为 0
+    private static final long[][] BETWEEN = new long[SQUARES][SQUARES];
+    // LINE[a][b]：a、b 同线时贯穿两者的整条直线（含 a、b），否则为 0
+    private static final long[][] LINE = new long[SQUARES][SQUARES];
+
+    static {
+        int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int row = sq >> 3, col = sq & 7;
+            for (int[] step : knightSteps) {
+                KNIGHT_ATTACKS[sq] |= bitAt(row + step[0], col + step[1]);
+            }
+            for (int[] step : DIRECTION_STEPS) {
+                KING_ATTACKS[sq] |= bitAt(row + step[0], col + step[1]);
+            }
+            PAWN_ATTACKS[ChessGame.WHITE][sq] = bitAt(row - 1, col - 1) | bitAt(row - 1, col + 1);
+            PAWN_ATTACKS[ChessGame.BLACK][sq] = bitAt(row + 1, col - 1) | bitAt(row + 1, col + 1);
+            for (int d = 0; d < 8; d++) {
+                long ray = 0;
+                for (int r = row + DIRECTION_STEPS[d][0], c = col + DIRECTION_STEPS[d][1];
+                     r >= 0 && r < 8 && c >= 0 && c < 8;
+                     r += DIRECTION_STEPS[d][0], c += DIRECTION_STEPS[d][1]) {
+                    ray |= 1L << (r * 8 + c);
+                }
+                RAYS[d][sq] = ray;
+            }
+        }
+        for (int a = 0; a < SQUARES; a++) {
+            for (int d = 0; d < 8; d++) {
+                long ray = RAYS[d][a];
+                long line = ray | RAYS[OPPOSITE[d]][a] | (1L << a);
+                for (long targets = ray; targets != 0; targets &= targets - 1) {
+                    int b = Long.numberOfTrailingZeros(targets);
+                    BETWEEN[a][b] = ray & ~RAYS[d][b] & ~(1L << b);
+                    LINE[a][b] = line;
+                }
+            }
+        }
+    }
+
+    private ChessBitboards() {
+    }
+
+    private static long bitAt(int row, int col) {
+        if (row < 0 || row >= 8 || col < 0 || col >= 8) return 0;
+        return 1L << (row * 8 + col);
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    public static long pawnAttacks(int color, int sq) {
+        return PAWN_ATTACKS[color][sq];
+    }
+
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return negativeRay(NORTH, sq, occupied) | positiveRay(SOUTH, sq, occupied)
+                | negativeRay(WEST, sq, occupied) | positiveRay(EAST, sq, occupied);
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return negativeRay(NORTH_WEST, sq, occupied) | negativeRay(NORTH_EAST, sq, occupied)
+                | positiveRay(SOUTH_WEST, sq, occupied) | positiveRay(SOUTH_EAST, sq, occupied);
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    // 格子编号递增方向的射线：第一个阻挡子是编号最小的那个
+    private static long positiveRay(int direction, int sq, long occupied) {
+        long ray = RAYS[direction][sq];
+        long blockers = ray & occupied;
+        if (blockers == 0) return ray;
+        return ray ^ RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+    }
+
+    // 格子编号递减方向的射线：第一个阻挡子是编号最大的那个
+    private static long negativeRay(int direction, int sq, long occupied) {
+        long ray = RAYS[direction][sq];
+        long blockers = ray & occupied;
+        if (blockers == 0) return ray;
+        return ray ^ RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+    }
+}
@@ -2,7 +2,6 @@ package com.example.hakimichat.game;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -11,40 +10,49 @@ import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 
-import com.example.hakimichat.R;
-
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 参考原始 chess 项目的实现，同时改进：
  * - 动态根据 View 大小计算格子尺寸（使棋盘能填满可用空间）
- * - 异步预加载并缩放棋子位图，避免主线程阻塞
- * - 缓存位图并在 onDetachedFromWindow 回收
+ * - 棋子位图来自进程内共享的 ChessPieceAtlas，缓存中没有当前尺寸时在后台线程生成，避免主线程阻塞
+ * - 格子和边框预先画在一张棋盘位图上（尺寸变化时重建），每帧只需贴图再叠加高亮和棋子
+ * - 选中、可走位置变化时只重绘相关格子
  */
 public class ChessBoardView extends View {
     private static final int BOARD_SIZE = 8;
+    private static final int LIGHT_SQUARE_COLOR = 0xFFF0D9B5;
+    private static final int DARK_SQUARE_COLOR = 0xFFB58863;
+    private static final int POSSIBLE_MOVE_COLOR = Color.argb(128, 0, 255, 0);
+    private static final int SELECTED_STROKE_WIDTH = 4;
 
     private ChessPiece[][] board;
     private Paint paint;
+    private Paint selectedPaint;
+    private Paint possibleMovePaint;
     private int selectedRow = -1;
     private int selectedCol = -1;
     private ChessGameCallback callback;
     private int currentPlayer = ChessPiece.WHITE;
 
     private List<int[]> possibleMoves = new ArrayList<>();
+    // 来自 ChessGame 的合法着法（含易位、吃过路兵，已排除送将）；为 null 时按棋子走法计算
+    private int[] legalMoves;
     private Move lastMove;
 
-    // 棋子图片资源ID映射
-    private Map<String, Integer> pieceResMap = new HashMap<>();
-    // 棋子图片缓存（按当前 cellSize 大小）
-    private Map<String, Bitmap> pieceBitmapCache = new HashMap<>();
+    // 当前 cellSize 对应的棋子图集，尚未生成时为 null（用文字绘制棋子）
+    private ChessPieceAtlas pieceAtlas;
 
     // 当前每格大小（像素），基于 view 宽高动态计算
     private int cellSize = 0;
 
+    // 静态棋盘层（格子和边框），按 cellSize 绘制
+    private Bitmap boardLayer;
+    // 绘制时复用的矩形，避免每帧分配
+    private final Rect cellRect = new Rect();
+    private final Rect clipRect = new Rect();
+
     public ChessBoardView(Context context, AttributeSet attrs) {
         super(context, attrs);
         init();
@@ -54,26 +62,16 @@ public class ChessBoardView extends View {
         paint = new Paint();
         paint.setAntiAlias(true);
 
-        initializePieceResources();
-        initializeBoard();
-    }
+        selectedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        selectedPaint.setStyle(Paint.Style.STROKE);
+        selectedPaint.setColor(Color.RED);
+        selectedPaint.setStrokeWidth(SELECTED_STROKE_WIDTH);
 
-    private void initializePieceResources() {
-        // 白棋
-        pieceResMap.put("pawn_white", R.drawable.pawn_white);
-        pieceResMap.put("rook_white", R.drawable.rook_white);
-        pieceResMap.put("knight_white", R.drawable.knight_white);
-        pieceResMap.put("bishop_white", R.drawable.bishop_white);
-        pieceResMap.put("queen_white", R.drawable.queen_white);
-        pieceResMap.put("king_white", R.drawable.king_white);
+        possibleMovePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        possibleMovePaint.setStyle(Paint.Style.FILL);
+        possibleMovePaint.setColor(POSSIBLE_MOVE_COLOR);
 
-        // 黑棋
-        pieceResMap.put("pawn_black", R.drawable.pawn_black);
-        pieceResMap.put("rook_black", R.drawable.rook_black);
-        pieceResMap.put("knight_black", R.drawable.knight_black);
-        pieceResMap.put("bishop_black", R.drawable.bishop_black);
-        pieceResMap.put("queen_black", R.drawable.queen_black);
-        pieceResMap.put("king_black", R.drawable.king_black);
+        initializeBoard();
     }
 
     private void initializeBoard() {
@@ -127,11 +125,71 @@ public class ChessBoardView extends View {
         int newCell = Math.max(1, Math.min(w / BOARD_SIZE, h / BOARD_SIZE));
         if (newCell != cellSize) {
             cellSize = newCell;
+            releaseBoardLayer();
             // 异步预加载并缩放位图
             ensureScaledPieceBitmaps();
         }
     }
 
+    /**
+     * 把 64 个格子和边框画到一张位图上；只在格子尺寸变化后的第一次绘制时执行
+     */
+    private void buildBoardLayer() {
+        // 最右、最下两条边框落在棋盘外的一个像素上
+        int size = cellSize * BOARD_SIZE + 1;
+        try {
+            boardLayer = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
+        } catch (OutOfMemoryError oom) {
+            android.util.Log.w("ChessBoardView", "OOM creating board layer", oom);
+            boardLayer = null;
+            return;
+        }
+        Canvas layerCanvas = new Canvas(boardLayer);
+        Paint fill = new Paint();
+        fill.setStyle(Paint.Style.FILL);
+        Paint border = new Paint();
+        border.setStyle(Paint.Style.STROKE);
+        border.setColor(Color.BLACK);
+        border.setStrokeWidth(1);
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                setCellRect(i, j);
+                fill.setColor((i + j) % 2 == 0 ? LIGHT_SQUARE_COLOR : DARK_SQUARE_COLOR);
+                layerCanvas.drawRect(cellRect, fill);
+                layerCanvas.drawRect(cellRect, border);
+            }
+        }
+    }
+
+    private void releaseBoardLayer() {
+        if (boardLayer != null && !boardLayer.isRecycled()) boardLayer.recycle();
+        boardLayer = null;
+    }
+
+    private void setCellRect(int row, int col) {
+        cellRect.set(col * cellSize, row * cellSize, (col + 1) * cellSize, (row + 1) * cellSize);
+    }
+
+    /**
+     * 只重绘一个格子（选中框的描边会略微超出格子，向外多留几个像素）
+     */
+    private void invalidateCell(int row, int col) {
+        if (row < 0 || col < 0 || cellSize <= 0) return;
+        int pad = SELECTED_STROKE_WIDTH;
+        invalidate(col * cellSize - pad, row * cellSize - pad,
+                (col + 1) * cellSize + pad, (row + 1) * cellSize + pad);
+    }
+
+    /**
+     * 重绘当前选中格和所有可走位置，在选中状态改变前后各调用一次
+     */
+    private void invalidateSelection() {
+        invalidateCell(selectedRow, selectedCol);
+        for (int[] move : possibleMoves) {
+            if (move != null && move.length >= 2) invalidateCell(move[0], move[1]);
+        }
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         try {
@@ -139,9 +197,15 @@ public class ChessBoardView extends View {
 
             if (cellSize <= 0 || board == null) return;
 
-            // 绘制格子
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                for (int j = 0; j < BOARD_SIZE; j++) drawCell(canvas, i, j);
+            // 静态棋盘层；从窗口分离后重新附加时图集引用已释放，先从共享缓存取回
+            if (boardLayer == null) buildBoardLayer();
+            if (pieceAtlas == null) pieceAtlas = ChessPieceAtlas.getCached(pieceSize());
+            if (boardLayer != null) {
+                canvas.drawBitmap(boardLayer, 0, 0, null);
+            } else {
+                for (int i = 0; i < BOARD_SIZE; i++) {
+                    for (int j = 0; j < BOARD_SIZE; j++) drawCell(canvas, i, j);
+                }
             }
 
             for (int[] move : possibleMoves) {
@@ -151,40 +215,41 @@ public class ChessBoardView extends View {
             if (selectedRow != -1 && selectedCol != -1)
                 drawSelectedCell(canvas, selectedRow, selectedCol);
 
-            for (int i = 0; i < BOARD_SIZE; i++)
-                for (int j = 0; j < BOARD_SIZE; j++) drawPiece(canvas, i, j);
+            // 局部重绘时只画与重绘区域相交的格子里的棋子
+            if (!canvas.getClipBounds(clipRect)) return;
+            int firstRow = Math.max(0, clipRect.top / cellSize);
+            int lastRow = Math.min(BOARD_SIZE - 1, (clipRect.bottom - 1) / cellSize);
+            int firstCol = Math.max(0, clipRect.left / cellSize);
+            int lastCol = Math.min(BOARD_SIZE - 1, (clipRect.right - 1) / cellSize);
+            for (int i = firstRow; i <= lastRow; i++)
+                for (int j = firstCol; j <= lastCol; j++) drawPiece(canvas, i, j);
         } catch (Exception e) {
             android.util.Log.e("ChessBoardView", "onDraw error", e);
         }
     }
 
+    // 棋盘层位图创建失败时直接绘制格子
     private void drawCell(Canvas canvas, int row, int col) {
-        Rect rect = new Rect(col * cellSize, row * cellSize, (col + 1) * cellSize, (row + 1) * cellSize);
-        if ((row + col) % 2 == 0) paint.setColor(Color.parseColor("#F0D9B5"));
-        else paint.setColor(Color.parseColor("#B58863"));
+        setCellRect(row, col);
+        paint.setColor((row + col) % 2 == 0 ? LIGHT_SQUARE_COLOR : DARK_SQUARE_COLOR);
         paint.setStyle(Paint.Style.FILL);
-        canvas.drawRect(rect, paint);
+        canvas.drawRect(cellRect, paint);
         paint.setStyle(Paint.Style.STROKE);
         paint.setColor(Color.BLACK);
         paint.setStrokeWidth(1);
-        canvas.drawRect(rect, paint);
+        canvas.drawRect(cellRect, paint);
     }
 
     private void drawSelectedCell(Canvas canvas, int row, int col) {
-        Rect rect = new Rect(col * cellSize, row * cellSize, (col + 1) * cellSize, (row + 1) * cellSize);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setColor(Color.RED);
-        paint.setStrokeWidth(4);
-        canvas.drawRect(rect, paint);
+        setCellRect(row, col);
+        canvas.drawRect(cellRect, selectedPaint);
     }
 
     private void drawPossibleMove(Canvas canvas, int row, int col) {
         float centerX = col * cellSize + cellSize / 2f;
         float centerY = row * cellSize + cellSize / 2f;
         float radius = cellSize / 6f;
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(Color.argb(128, 0, 255, 0));
-        canvas.drawCircle(centerX, centerY, radius, paint);
+        canvas.drawCircle(centerX, centerY, radius, possibleMovePaint);
     }
 
     private void drawPiece(Canvas canvas, int row, int col) {
@@ -192,12 +257,11 @@ public class ChessBoardView extends View {
             ChessPiece piece = board[row][col];
             if (piece == null || piece.getType() == ChessPiece.EMPTY) return;
 
-            String imageName = piece.getImageName();
-            Bitmap bmp = pieceBitmapCache.get(imageName);
-            if (bmp != null) {
-                int left = col * cellSize + (cellSize - bmp.getWidth()) / 2;
-                int top = row * cellSize + (cellSize - bmp.getHeight()) / 2;
-                canvas.drawBitmap(bmp, left, top, paint);
+            ChessPieceAtlas atlas = pieceAtlas;
+            if (atlas != null) {
+                int left = col * cellSize + (cellSize - atlas.getPieceSize()) / 2;
+                int top = row * cellSize + (cellSize - atlas.getPieceSize()) / 2;
+                atlas.draw(canvas, piece.getType(), piece.getColor(), left, top);
             } else {
                 drawTextPiece(canvas, row, col, piece);
             }
@@ -240,6 +304,8 @@ public class ChessBoardView extends View {
 
     private void handleCellClick(int row, int col) {
         ChessPiece clickedPiece = board[row][col];
+        // 旧的选中框和可走位置需要擦除
+        invalidateSelection();
         if (selectedRow != -1 && selectedCol != -1) {
             if (isValidMove(selectedRow, selectedCol, row, col)) {
                 movePiece(selectedRow, selectedCol, row, col);
@@ -263,11 +329,23 @@ public class ChessBoardView extends View {
             calculatePossibleMoves(row, col);
             updateSelectedPieceInfo();
         }
-        invalidate();
+        invalidateSelection();
     }
 
     private void calculatePossibleMoves(int fromRow, int fromCol) {
         possibleMoves.clear();
+        if (legalMoves != null) {
+            int from = fromRow * BOARD_SIZE + fromCol;
+            for (int move : legalMoves) {
+                if (ChessMove.from(move) != from) continue;
+                int to = ChessMove.to(move);
+                // 四种升变的终点相同，只提示一次
+                if (!isValidMove(fromRow, fromCol, to / BOARD_SIZE, to % BOARD_SIZE)) {
+                    possibleMoves.add(new int[]{to / BOARD_SIZE, to % BOARD_SIZE});
+                }
+            }
+            return;
+        }
         ChessPiece piece = board[fromRow][fromCol];
         switch (piece.getType()) {
             case ChessPiece.PAWN:
@@ -380,10 +458,10 @@ public class ChessBoardView extends View {
         }
 
         // 清理选中和可能移动集合，等待来自 GameManager 的状态更新
+        invalidateSelection();
         selectedRow = -1;
         selectedCol = -1;
         possibleMoves.clear();
-        invalidate();
     }
 
     public void undoMove() {
@@ -450,6 +528,7 @@ public class ChessBoardView extends View {
                 int turnColor = game.getCurrentPlayerColor();
                 this.currentPlayer = (turnColor == 0) ? ChessPiece.WHITE : ChessPiece.BLACK;
             } catch (Exception ignored) {}
+            legalMoves = game.getLegalMoves();
 
             // 日志有助于远端诊断
             android.util.Log.d("ChessBoardView", "setBoardFromGame: board updated from game, cellSize=" + cellSize);
@@ -464,6 +543,7 @@ public class ChessBoardView extends View {
         selectedRow = -1;
         selectedCol = -1;
         possibleMoves.clear();
+        legalMoves = null;
         currentPlayer = ChessPiece.WHITE;
         lastMove = null;
         if (callback != null) {
@@ -473,50 +553,37 @@ public class ChessBoardView extends View {
         invalidate();
     }
 
-    // 异步预加载并缩放位图（在 background thread），完成后在 UI 线程替换缓存
+    // 缓存中没有当前尺寸的图集时在后台线程生成，完成后在 UI 线程替换
     private final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
     private final java.util.concurrent.atomic.AtomicReference<java.util.concurrent.Future<?>> preloadFuture = new java.util.concurrent.atomic.AtomicReference<>();
 
+    // 棋子边长为格子的 80%
+    private int pieceSize() {
+        return Math.max(1, (int) (cellSize * 0.8f));
+    }
+
     private void ensureScaledPieceBitmaps() {
         try {
-            final int target = Math.max(1, (int) (cellSize * 0.8f));
+            final int target = pieceSize();
             java.util.concurrent.Future<?> prev = preloadFuture.getAndSet(null);
             if (prev != null && !prev.isDone()) prev.cancel(true);
+
+            ChessPieceAtlas cached = ChessPieceAtlas.getCached(target);
+            if (cached != null) {
+                pieceAtlas = cached;
+                invalidate();
+                return;
+            }
+            final android.content.res.Resources res = getResources();
             java.util.concurrent.Future<?> f = executor.submit(() -> {
-                final Map<String, Bitmap> newCache = new HashMap<>();
-                try {
-                    BitmapFactory.Options opts = new BitmapFactory.Options();
-                    opts.inScaled = false;
-                    opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
-                    for (Map.Entry<String, Integer> e : pieceResMap.entrySet()) {
-                        if (Thread.currentThread().isInterrupted()) return;
-                        Integer resId = e.getValue();
-                        if (resId == null) continue;
-                        try {
-                            Bitmap bmp = BitmapFactory.decodeResource(getResources(), resId, opts);
-                            if (bmp == null) continue;
-                            Bitmap scaled = Bitmap.createScaledBitmap(bmp, target, target, true);
-                            newCache.put(e.getKey(), scaled);
-                            if (scaled != bmp) bmp.recycle();
-                        } catch (OutOfMemoryError oom) {
-                            android.util.Log.w("ChessBoardView", "OOM decoding " + e.getKey(), oom);
-                        } catch (Exception ex) {
-                            android.util.Log.w("ChessBoardView", "decode failed " + e.getKey(), ex);
-                        }
-                    }
-                } finally {
-                    post(() -> {
-                        try {
-                            for (Bitmap b : pieceBitmapCache.values()) {
-                                if (b != null && !b.isRecycled()) b.recycle();
-                            }
-                        } catch (Exception ignored) {
-                        }
-                        pieceBitmapCache.clear();
-                        pieceBitmapCache.putAll(newCache);
-                        invalidate();
-                    });
-                }
+                final ChessPieceAtlas atlas = ChessPieceAtlas.obtain(res, target);
+                if (atlas == null || Thread.currentThread().isInterrupted()) return;
+                post(() -> {
+                    // 期间尺寸可能又变了，只接受与当前格子大小一致的图集
+                    if (atlas.getPieceSize() != pieceSize()) return;
+                    pieceAtlas = atlas;
+                    invalidate();
+                });
             });
             preloadFuture.set(f);
         } catch (Exception ex) {
@@ -533,13 +600,9 @@ public class ChessBoardView extends View {
             executor.shutdownNow();
         } catch (Exception ignored) {
         }
-        for (Bitmap b : pieceBitmapCache.values()) {
-            try {
-                if (b != null && !b.isRecycled()) b.recycle();
-            } catch (Exception ignored) {
-            }
-        }
-        pieceBitmapCache.clear();
+        // 图集由 ChessPieceAtlas 共享缓存，这里只释放引用
+        pieceAtlas = null;
+        releaseBoardLayer();
     }
 
     // 回收帮助类 / 移动记录
@@ -619,25 +682,5 @@ public class ChessBoardView extends View {
                     return "?";
             }
         }
-
-        String getImageName() {
-            String col = (color == WHITE) ? "white" : "black";
-            switch (type) {
-                case PAWN:
-                    return "pawn_" + col;
-                case ROOK:
-                    return "rook_" + col;
-                case KNIGHT:
-                    return "knight_" + col;
-                case BISHOP:
-                    return "bishop_" + col;
-                case QUEEN:
-                    return "queen_" + col;
-                case KING:
-                    return "king_" + col;
-                default:
-                    return "";
-            }
-        }
     }
 }
@@ -0,0 +1,435 @@
+package com.example.hakimichat.game;
+
+import java.util.Arrays;
+
+/**
+ * 国际象棋AI搜索引擎
+ * 在局面副本上执行迭代加深的 alpha-beta（negamax）搜索：
+ * - 叶子节点进入静态搜索，只展开吃子和升变（被将军时展开全部应将着法），避免水平线效应
+ * - 着法排序：置换表着法 > 吃子与升变（MVV-LVA）> 杀手着法 > 历史分数
+ * - 评估为子力加棋子位置表，王按残局程度在中局表与残局表之间插值，以行棋方视角返回
+ * - 搜索树内局面重复一次或满五十回合即按和棋计分，避免AI在优势局面中来回走子
+ * 时间预算分两级：用完一半不再开始下一轮迭代，用完全部立即中止并采用上一轮的结果。
+ * 一个实例不能在多个线程间共享，stop() 可以从其他线程调用。
+ */
+public class ChessEngine {
+
+    static final int MATE_SCORE = 100000;
+    // 绝对值超过该值的分数表示若干步内将死
+    private static final int MATE_BOUND = MATE_SCORE - 1000;
+    private static final int INFINITY = MATE_SCORE + 1;
+    private static final int MAX_PLY = 64;
+
+    private static final int CLOCK_POLL_MASK = 1023;
+
+    // 置换表条目类型
+    private static final int TT_EXACT = 0;
+    private static final int TT_LOWER = 1;
+    private static final int TT_UPPER = 2;
+
+    // 置换表大小（2^18 项，约 4MB），跨多次搜索保留
+    private static final int TT_BITS = 18;
+    private static final int TT_SIZE = 1 << TT_BITS;
+    private static final int TT_MASK = TT_SIZE - 1;
+
+    // 着法排序分数
+    private static final int SCORE_TT_MOVE = 1 << 30;
+    private static final int SCORE_CAPTURE = 1 << 29;
+    private static final int SCORE_KILLER_1 = 1 << 28;
+    private static final int SCORE_KILLER_2 = SCORE_KILLER_1 - 1;
+    private static final int HISTORY_LIMIT = SCORE_KILLER_2 - 1;
+
+    // 子力价值与 MVV-LVA 中攻击者的序（兵 < 马 < 象 < 车 < 后 < 王），下标为兵种
+    private static final int[] PIECE_VALUES = {0, 100, 500, 320, 330, 900, 0};
+    private static final int[] ATTACKER_ORDER = {0, 1, 4, 2, 3, 5, 6};
+    // 残局程度：马、象各 1，车 2，后 4，满值 24 为开局
+    private static final int[] PHASE_WEIGHTS = {0, 0, 2, 1, 1, 4, 0};
+    private static final int MAX_PHASE = 24;
+
+    // 白方视角的位置表，下标 0 为 a8（与 ChessPosition 的格子编号一致），黑方使用 sq ^ 56
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] KING_MIDDLE_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_END_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // PIECE_SQUARE[piece][sq]：子力价值加位置分（王只有位置分），piece 为 ChessPosition 的棋子编码
+    private static final int[][] PIECE_SQUARE = new int[16][64];
+    private static final int[][] KING_END = new int[2][64];
+
+    static {
+        int[][] tables = {null, PAWN_TABLE, ROOK_TABLE, KNIGHT_TABLE, BISHOP_TABLE, QUEEN_TABLE, KING_MIDDLE_TABLE};
+        for (int color = ChessGame.WHITE; color <= ChessGame.BLACK; color++) {
+            for (int sq = 0; sq < 64; sq++) {
+                int index = (color == ChessGame.WHITE) ? sq : sq ^ 56;
+                for (int type = ChessGame.PAWN; type <= ChessGame.KING; type++) {
+                    PIECE_SQUARE[ChessPosition.piece(type, color)][sq] = PIECE_VALUES[type] + tables[type][index];
+                }
+                KING_END[color][sq] = KING_END_TABLE[index];
+            }
+        }
+    }
+
+    private final ChessPosition position = new ChessPosition();
+    private final ChessMoveGenerator generator = new ChessMoveGenerator();
+    // 每层一个着法缓冲区和排序分数，搜索过程中不分配对象
+    private final int[][] moveStack = new int[MAX_PLY][ChessMoveGenerator.MAX_MOVES];
+    private final int[][] scoreStack = new int[MAX_PLY][ChessMoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[64][64];
+
+    // 置换表：meta 低 16 位为最佳着法，16-23 位为深度，24 位以上为条目类型
+    private final long[] ttKeys = new long[TT_SIZE];
+    private final int[] ttScores = new int[TT_SIZE];
+    private final int[] ttMeta = new int[TT_SIZE];
+
+    private long startTime;
+    private long softLimitMs;
+    private long hardLimitMs;
+    private long nodes;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int rootBestMove;
+    private int lastCompletedDepth;
+
+    /**
+     * 载入要搜索的局面（复制，不会修改传入的局面）
+     */
+    public void setPosition(ChessPosition source) {
+        position.copyFrom(source);
+    }
+
+    /**
+     * 为行棋方寻找最佳着法
+     * 不会清除已发出的 stop 请求：搜索开始前已调用 stop() 时立即返回第一个合法着法，
+     * 需要再次搜索时先调用 resetStop()。
+     * @param maxDepth 迭代加深的最大深度
+     * @param timeLimitMs 时间预算，用完一半后不再开始新一轮迭代
+     * @return ChessMove 编码的着法，没有合法着法时返回 ChessMove.NONE
+     */
+    public int findBestMove(int maxDepth, long timeLimitMs) {
+        startTime = System.currentTimeMillis();
+        softLimitMs = timeLimitMs / 2;
+        hardLimitMs = timeLimitMs;
+        nodes = 0;
+        // 与 GobangSearchController.start() 一致：保留开始前发出的 stop 请求
+        aborted = stopRequested;
+        lastCompletedDepth = 0;
+        for (int[] pair : killers) Arrays.fill(pair, ChessMove.NONE);
+        for (int[] row : history) Arrays.fill(row, 0);
+
+        int[] rootMoves = moveStack[0];
+        int count = generator.generateLegal(position, rootMoves);
+        if (count == 0) return ChessMove.NONE;
+        int bestMove = rootMoves[0];
+        // 只有一个合法着法时不必搜索
+        if (count == 1 || aborted) return bestMove;
+
+        for (int depth = 1; depth <= maxDepth && depth < MAX_PLY; depth++) {
+            rootBestMove = ChessMove.NONE;
+            int score = search(depth, -INFINITY, INFINITY, 0);
+            // 中止的一轮结果不可信，使用上一轮的最佳着法
+            if (aborted) break;
+            if (rootBestMove != ChessMove.NONE) bestMove = rootBestMove;
+            lastCompletedDepth = depth;
+            if (Math.abs(score) >= MATE_BOUND) break;
+            if (System.currentTimeMillis() - startTime >= softLimitMs) break;
+        }
+        return bestMove;
+    }
+
+    /**
+     * 请求中止正在进行的搜索（可从其他线程调用），findBestMove 会尽快返回已完成的结果
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * 清除 stop 请求，在提交新的搜索任务之前调用（不要在搜索线程里调用，否则会吞掉刚发出的 stop）
+     */
+    public void resetStop() {
+        stopRequested = false;
+    }
+
+    public int getLastCompletedDepth() {
+        return lastCompletedDepth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void clearTranspositionTable() {
+        Arrays.fill(ttKeys, 0L);
+        Arrays.fill(ttScores, 0);
+        Arrays.fill(ttMeta, 0);
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) return quiesce(alpha, beta, ply);
+        if (tick()) return 0;
+        if (ply > 0 && (position.getHalfmoveClock() >= 100 || position.getRepetitionCount() > 0)) return 0;
+
+        long key = position.getKey();
+        int slot = (int) key & TT_MASK;
+        int ttMove = ChessMove.NONE;
+        if (ttKeys[slot] == key) {
+            int meta = ttMeta[slot];
+            ttMove = meta & 0xFFFF;
+            // 根节点必须搜索，才能得到本轮的最佳着法
+            if (ply > 0 && ((meta >>> 16) & 0xFF) >= depth) {
+                int score = fromTranspositionScore(ttScores[slot], ply);
+                int flag = meta >>> 24;
+                if (flag == TT_EXACT || (flag == TT_LOWER && score >= beta) || (flag == TT_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveStack[ply];
+        int count = generator.generateLegal(position, moves);
+        if (count == 0) {
+            // 将死或逼和
+            return position.isInCheck(position.getSideToMove()) ? -MATE_SCORE + ply : 0;
+        }
+        if (ply >= MAX_PLY - 1) return evaluate();
+
+        int[] scores = scoreStack[ply];
+        scoreMoves(moves, scores, count, ply, ttMove);
+        int alphaOrig = alpha;
+        int best = -INFINITY;
+        int bestMove = ChessMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(moves, scores, i, count);
+            position.make(move);
+            int score = -search(depth - 1, -beta, -alpha, ply + 1);
+            position.unmake();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) rootBestMove = move;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) {
+                    if (!ChessMove.isCapture(move) && !ChessMove.isPromotion(move)) recordQuietCutoff(move, depth, ply);
+                    break;
+                }
+            }
+        }
+
+        int flag = (best <= alphaOrig) ? TT_UPPER : (best >= beta) ? TT_LOWER : TT_EXACT;
+        ttKeys[slot] = key;
+        ttScores[slot] = toTranspositionScore(best, ply);
+        ttMeta[slot] = (bestMove & 0xFFFF) | (Math.min(depth, 0xFF) << 16) | (flag << 24);
+        return best;
+    }
+
+    /**
+     * 静态搜索：不被将军时可以选择不走（以评估值为下限），只继续展开吃子和升变
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if (tick()) return 0;
+        boolean inCheck = position.isInCheck(position.getSideToMove());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluate();
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+        if (ply >= MAX_PLY - 1) return evaluate();
+
+        int[] moves = moveStack[ply];
+        int count = generator.generateLegal(position, moves);
+        if (count == 0 && inCheck) return -MATE_SCORE + ply;
+
+        int[] scores = scoreStack[ply];
+        scoreMoves(moves, scores, count, ply, ChessMove.NONE);
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(moves, scores, i, count);
+            // 吃子和升变排在最前，遇到第一个安静着法即可结束
+            if (!inCheck && scores[i] < SCORE_CAPTURE) break;
+            position.make(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.unmake();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        return best;
+    }
+
+    private boolean tick() {
+        if (aborted) return true;
+        nodes++;
+        if ((nodes & CLOCK_POLL_MASK) == 0
+                && (stopRequested || System.currentTimeMillis() - startTime >= hardLimitMs)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private void scoreMoves(int[] moves, int[] scores, int count, int ply, int ttMove) {
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = ChessMove.from(move), to = ChessMove.to(move);
+            if (move == ttMove) {
+                scores[i] = SCORE_TT_MOVE;
+            } else if (ChessMove.isCapture(move) || ChessMove.isPromotion(move)) {
+                int victim = (ChessMove.flag(move) == ChessMove.EN_PASSANT)
+                        ? ChessGame.PAWN : ChessPosition.typeOf(position.pieceAt(to));
+                int attacker = ChessPosition.typeOf(position.pieceAt(from));
+                int gain = PIECE_VALUES[victim] + PIECE_VALUES[ChessMove.promotionType(move)];
+                scores[i] = SCORE_CAPTURE + gain * 8 - ATTACKER_ORDER[attacker];
+            } else if (move == plyKillers[0]) {
+                scores[i] = SCORE_KILLER_1;
+            } else if (move == plyKillers[1]) {
+                scores[i] = SCORE_KILLER_2;
+            } else {
+                scores[i] = history[from][to];
+            }
+        }
+    }
+
+    /**
+     * 选择排序的一步：把第 index 个之后分数最高的着法换到 index 处并返回
+     */
+    private static int pickMove(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != index) {
+            int move = moves[best];
+            moves[best] = moves[index];
+            moves[index] = move;
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves[index];
+    }
+
+    private void recordQuietCutoff(int move, int depth, int ply) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int from = ChessMove.from(move), to = ChessMove.to(move);
+        history[from][to] = Math.min(HISTORY_LIMIT, history[from][to] + depth * depth);
+    }
+
+    // 将死分数与到达的层数有关，存入置换表时换算成相对当前节点的距离
+    private static int toTranspositionScore(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTranspositionScore(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+
+    /**
+     * 行棋方视角的局面评估
+     */
+    int evaluate() {
+        int score = 0;
+        int phase = 0;
+        int kingMiddle = 0, kingEnd = 0;
+        for (int color = ChessGame.WHITE; color <= ChessGame.BLACK; color++) {
+            int sign = (color == ChessGame.WHITE) ? 1 : -1;
+            long[] bitboards = position.pieces[color];
+            for (int type = ChessGame.PAWN; type < ChessGame.KING; type++) {
+                int[] table = PIECE_SQUARE[ChessPosition.piece(type, color)];
+                for (long bb = bitboards[type]; bb != 0; bb &= bb - 1) {
+                    score += sign * table[Long.numberOfTrailingZeros(bb)];
+                    phase += PHASE_WEIGHTS[type];
+                }
+            }
+            long king = bitboards[ChessGame.KING];
+            if (king != 0) {
+                int sq = Long.numberOfTrailingZeros(king);
+                kingMiddle += sign * PIECE_SQUARE[ChessPosition.piece(ChessGame.KING, color)][sq];
+                kingEnd += sign * KING_END[color][sq];
+            }
+        }
+        phase = Math.min(phase, MAX_PHASE);
+        score += (kingMiddle * phase + kingEnd * (MAX_PHASE - phase)) / MAX_PHASE;
+        return position.getSideToMove() == ChessGame.WHITE ? score : -score;
+    }
+}
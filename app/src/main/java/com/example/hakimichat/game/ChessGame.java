@@ -4,13 +4,12 @@ import android.graphics.Point;
 
 import com.example.hakimichat.R;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * 国际象棋游戏实现
@@ -30,10 +29,11 @@ public class ChessGame extends BaseGame {
     public static final int BLACK = 1;
 
     private static final String GAME_TYPE = "Chess";
-    private static final int MAX_SEARCH_DEPTH = 4;
+    private static final int MAX_SEARCH_DEPTH = 10;
     private static final long TIME_LIMIT_MS = 2500;
 
-    private ChessPiece[][] board = new ChessPiece[BOARD_SIZE][BOARD_SIZE];
+    // 棋盘与走子历史（可逆 make/unmake，不分配对象）
+    private final ChessPosition position = new ChessPosition();
     private int moveCount = 0;
     private int turnColor = WHITE;
     private String whitePlayerName;
@@ -41,7 +41,13 @@ public class ChessGame extends BaseGame {
 
     private boolean isStrictMode = false;
 
-    private final Stack<Move> moveHistory = new Stack<>();
+    // 单机（人机对战）模式
+    private boolean isAiEnabled = false;
+    private String humanPlayerName;
+    private final ChessEngine engine = new ChessEngine();
+
+    private final ChessMoveGenerator moveGenerator = new ChessMoveGenerator();
+    private final int[] moveBuffer = new int[ChessMoveGenerator.MAX_MOVES];
 
     public ChessGame() {
         super();
@@ -50,48 +56,12 @@ public class ChessGame extends BaseGame {
 
     @Override
     public void initGame() {
-        // 初始化空棋盘
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = new ChessPiece(EMPTY, WHITE);
-            }
-        }
-
-        // 设置黑方棋子 (第0行)
-        board[0][0] = new ChessPiece(ROOK, BLACK);
-        board[0][1] = new ChessPiece(KNIGHT, BLACK);
-        board[0][2] = new ChessPiece(BISHOP, BLACK);
-        board[0][3] = new ChessPiece(QUEEN, BLACK);
-        board[0][4] = new ChessPiece(KING, BLACK);
-        board[0][5] = new ChessPiece(BISHOP, BLACK);
-        board[0][6] = new ChessPiece(KNIGHT, BLACK);
-        board[0][7] = new ChessPiece(ROOK, BLACK);
-
-        // 黑方兵 (第1行)
-        for (int j = 0; j < BOARD_SIZE; j++) {
-            board[1][j] = new ChessPiece(PAWN, BLACK);
-        }
-
-        // 设置白方棋子 (第7行)
-        board[7][0] = new ChessPiece(ROOK, WHITE);
-        board[7][1] = new ChessPiece(KNIGHT, WHITE);
-        board[7][2] = new ChessPiece(BISHOP, WHITE);
-        board[7][3] = new ChessPiece(QUEEN, WHITE);
-        board[7][4] = new ChessPiece(KING, WHITE);
-        board[7][5] = new ChessPiece(BISHOP, WHITE);
-        board[7][6] = new ChessPiece(KNIGHT, WHITE);
-        board[7][7] = new ChessPiece(ROOK, WHITE);
-
-        // 白方兵 (第6行)
-        for (int j = 0; j < BOARD_SIZE; j++) {
-            board[6][j] = new ChessPiece(PAWN, WHITE);
-        }
-
+        // 黑方在第 0、1 行，白方在第 6、7 行
+        position.setupInitial();
         moveCount = 0;
         turnColor = WHITE;
         isGameOver = false;
         gameResult = null;
-        moveHistory.clear();
     }
 
     @Override
@@ -142,9 +112,9 @@ public class ChessGame extends BaseGame {
                 blackPlayerName = player;
                 isGameStarted = true;
 
-                // 随机决定谁是白方（真人对战）
+                // 随机决定谁是白方（真人对战）；人机模式按加入顺序，先加入者执白
                 java.util.Random random = new java.util.Random();
-                if (random.nextBoolean()) {
+                if (!isAiEnabled && random.nextBoolean()) {
                     // 交换黑白方
                     String temp = whitePlayerName;
                     whitePlayerName = blackPlayerName;
@@ -157,7 +127,57 @@ public class ChessGame extends BaseGame {
         return false;
     }
 
-    // 人机模式已从国际象棋移除
+    public void setAiMode(boolean isAi, String humanPlayer) {
+        this.isAiEnabled = isAi;
+        if (isAi) this.humanPlayerName = humanPlayer;
+    }
+
+    public boolean isAiEnabled() {
+        return isAiEnabled;
+    }
+
+    public String getHumanPlayerName() {
+        return humanPlayerName;
+    }
+
+    /**
+     * 当前局面的 Zobrist 哈希，所有设备上同一局面的哈希相同，可用于联机状态校验和缓存键
+     */
+    public long getStateHash() {
+        return position.getKey();
+    }
+
+    /**
+     * 当前局面的副本，交给AI线程搜索
+     */
+    public ChessPosition getPositionSnapshot() {
+        ChessPosition snapshot = new ChessPosition();
+        snapshot.copyFrom(position);
+        return snapshot;
+    }
+
+    /**
+     * 基于局面快照计算AI着法，可在后台线程调用（同一时间只能有一个线程使用AI）
+     * @return ChessMove 编码的着法，没有合法着法时返回 ChessMove.NONE
+     */
+    public int getAiMove(ChessPosition snapshot) {
+        engine.setPosition(snapshot);
+        return engine.findBestMove(MAX_SEARCH_DEPTH, TIME_LIMIT_MS);
+    }
+
+    /**
+     * 准备一次新的AI计算：清除之前的停止请求，在把 getAiMove 提交到后台线程之前调用
+     */
+    public void prepareAiMove() {
+        engine.resetStop();
+    }
+
+    /**
+     * 让正在进行或尚未开始的AI搜索尽快返回（可从任意线程调用）
+     */
+    public void stopAi() {
+        engine.stop();
+    }
 
     public String getWhitePlayerName() {
         return whitePlayerName;
@@ -167,16 +187,13 @@ public class ChessGame extends BaseGame {
         return blackPlayerName;
     }
 
-    public ChessPiece[][] getBoard() {
-        return board;
-    }
-
     public int[][][] getBoardData() {
         int[][][] boardData = new int[BOARD_SIZE][BOARD_SIZE][2];
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
-                boardData[i][j][0] = board[i][j].getType();
-                boardData[i][j][1] = board[i][j].getColor();
+                int piece = position.pieceAt(i * BOARD_SIZE + j);
+                boardData[i][j][0] = ChessPosition.typeOf(piece);
+                boardData[i][j][1] = ChessPosition.colorOf(piece);
             }
         }
         return boardData;
@@ -186,6 +203,14 @@ public class ChessGame extends BaseGame {
         return turnColor;
     }
 
+    /**
+     * 当前行棋方的全部合法着法（ChessMove 编码，供棋盘视图提示可走位置）
+     */
+    public int[] getLegalMoves() {
+        int count = moveGenerator.generateLegal(position, moveBuffer);
+        return Arrays.copyOf(moveBuffer, count);
+    }
+
     public void setStrictMode(boolean isStrict) {
         this.isStrictMode = isStrict;
     }
@@ -201,23 +226,37 @@ public class ChessGame extends BaseGame {
             int fromCol = moveData.getInt("fromCol");
             int toRow = moveData.getInt("toRow");
             int toCol = moveData.getInt("toCol");
+            // 兵到底线时可选升变兵种，默认升变为后
+            int promotion = moveData.optInt("promotion", QUEEN);
 
-            if (isValidMove(fromRow, fromCol, toRow, toCol)) {
+            int move = findLegalMove(fromRow, fromCol, toRow, toCol, promotion);
+            if (move != ChessMove.NONE) {
                 // 执行移动
-                Move move = new Move(fromRow, fromCol, toRow, toCol, board[toRow][toCol]);
-                makeMove(move);
-                moveHistory.push(move);
-
-                // 检查游戏结束
-                if (isCheckmate(getOpponentColor(turnColor))) {
+                position.make(move);
+                moveCount++;
+
+                // 检查游戏结束（此时轮到对方）
+                int opponentColor = getOpponentColor(turnColor);
+                boolean inCheck = position.isInCheck(opponentColor);
+                boolean hasLegalMoves = moveGenerator.hasLegalMove(position);
+                if (inCheck && !hasLegalMoves) {
                     isGameOver = true;
                     gameResult = (turnColor == WHITE ? "白方" : "黑方") + "获胜";
-                } else if (isStalemate(getOpponentColor(turnColor))) {
+                } else if (!hasLegalMoves) {
                     isGameOver = true;
                     gameResult = "和棋";
+                } else if (position.getRepetitionCount() >= 2) {
+                    isGameOver = true;
+                    gameResult = "和棋（三次重复局面）";
+                } else if (position.getHalfmoveClock() >= 100) {
+                    isGameOver = true;
+                    gameResult = "和棋（五十回合规则）";
+                } else if (position.hasInsufficientMaterial()) {
+                    isGameOver = true;
+                    gameResult = "和棋（子力不足）";
                 } else {
                     // 切换回合
-                    turnColor = getOpponentColor(turnColor);
+                    turnColor = opponentColor;
                     currentPlayer = (turnColor == WHITE ? whitePlayerName : blackPlayerName);
                 }
 
@@ -230,188 +269,32 @@ public class ChessGame extends BaseGame {
         return false;
     }
 
-    private boolean isValidMove(int fromRow, int fromCol, int toRow, int toCol) {
+    /**
+     * 在当前行棋方的合法着法中查找对应的着法（包括不能送将）
+     * @param promotion 升变着法要升变成的兵种，其他着法忽略
+     * @return 编码后的着法，不合法时返回 ChessMove.NONE
+     */
+    private int findLegalMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
         if (fromRow < 0 || fromRow >= BOARD_SIZE || fromCol < 0 || fromCol >= BOARD_SIZE ||
             toRow < 0 || toRow >= BOARD_SIZE || toCol < 0 || toCol >= BOARD_SIZE) {
-            return false;
-        }
-
-        ChessPiece piece = board[fromRow][fromCol];
-        // 不再依赖全局的 turnColor 字段来判断棋子颜色，
-        // 以便在检测对手的将军/僵局时也能正确判断合法移动
-        if (piece.getType() == EMPTY) {
-            return false;
-        }
-
-        ChessPiece targetPiece = board[toRow][toCol];
-        // 目标位置如果有己方棋子则不可走（比较的是移动棋子的颜色）
-        if (targetPiece.getType() != EMPTY && targetPiece.getColor() == piece.getColor()) {
-            return false;
-        }
-
-        // 检查具体棋子的移动规则（具体规则会基于棋子颜色自身来判断，例如兵的前进方向）
-        return isValidPieceMove(piece.getType(), fromRow, fromCol, toRow, toCol);
-    }
-
-    private boolean isValidPieceMove(int pieceType, int fromRow, int fromCol, int toRow, int toCol) {
-        int deltaRow = toRow - fromRow;
-        int deltaCol = toCol - fromCol;
-
-        switch (pieceType) {
-            case PAWN:
-                return isValidPawnMove(fromRow, fromCol, toRow, toCol, deltaRow, deltaCol);
-            case ROOK:
-                return isValidRookMove(fromRow, fromCol, toRow, toCol, deltaRow, deltaCol);
-            case KNIGHT:
-                return isValidKnightMove(deltaRow, deltaCol);
-            case BISHOP:
-                return isValidBishopMove(fromRow, fromCol, toRow, toCol, deltaRow, deltaCol);
-            case QUEEN:
-                return isValidQueenMove(fromRow, fromCol, toRow, toCol, deltaRow, deltaCol);
-            case KING:
-                return isValidKingMove(deltaRow, deltaCol);
-            default:
-                return false;
-        }
-    }
-
-    private boolean isValidPawnMove(int fromRow, int fromCol, int toRow, int toCol, int deltaRow, int deltaCol) {
-        int direction = (board[fromRow][fromCol].getColor() == WHITE) ? -1 : 1;
-        int startRow = (board[fromRow][fromCol].getColor() == WHITE) ? 6 : 1;
-
-        // 前进一格
-        if (deltaCol == 0 && deltaRow == direction && board[toRow][toCol].getType() == EMPTY) {
-            return true;
-        }
-
-        // 前进两格（从起始位置）
-        if (deltaCol == 0 && deltaRow == 2 * direction && fromRow == startRow &&
-            board[toRow][toCol].getType() == EMPTY &&
-            board[fromRow + direction][fromCol].getType() == EMPTY) {
-            return true;
+            return ChessMove.NONE;
         }
 
-        // 吃子
-        if (Math.abs(deltaCol) == 1 && deltaRow == direction && board[toRow][toCol].getType() != EMPTY) {
-            return true;
+        int from = fromRow * BOARD_SIZE + fromCol;
+        int to = toRow * BOARD_SIZE + toCol;
+        int count = moveGenerator.generateLegal(position, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (ChessMove.from(move) != from || ChessMove.to(move) != to) continue;
+            if (!ChessMove.isPromotion(move) || ChessMove.promotionType(move) == promotion) return move;
         }
-
-        return false;
-    }
-
-    private boolean isValidRookMove(int fromRow, int fromCol, int toRow, int toCol, int deltaRow, int deltaCol) {
-        if (deltaRow != 0 && deltaCol != 0) return false;
-        return isPathClear(fromRow, fromCol, toRow, toCol);
-    }
-
-    private boolean isValidKnightMove(int deltaRow, int deltaCol) {
-        return (Math.abs(deltaRow) == 2 && Math.abs(deltaCol) == 1) ||
-               (Math.abs(deltaRow) == 1 && Math.abs(deltaCol) == 2);
-    }
-
-    private boolean isValidBishopMove(int fromRow, int fromCol, int toRow, int toCol, int deltaRow, int deltaCol) {
-        if (Math.abs(deltaRow) != Math.abs(deltaCol)) return false;
-        return isPathClear(fromRow, fromCol, toRow, toCol);
-    }
-
-    private boolean isValidQueenMove(int fromRow, int fromCol, int toRow, int toCol, int deltaRow, int deltaCol) {
-        if (deltaRow == 0 && deltaCol == 0) return false;
-        if (Math.abs(deltaRow) == Math.abs(deltaCol) || deltaRow == 0 || deltaCol == 0) {
-            return isPathClear(fromRow, fromCol, toRow, toCol);
-        }
-        return false;
-    }
-
-    private boolean isValidKingMove(int deltaRow, int deltaCol) {
-        return Math.abs(deltaRow) <= 1 && Math.abs(deltaCol) <= 1 && !(deltaRow == 0 && deltaCol == 0);
-    }
-
-    private boolean isPathClear(int fromRow, int fromCol, int toRow, int toCol) {
-        int stepRow = Integer.compare(toRow, fromRow);
-        int stepCol = Integer.compare(toCol, fromCol);
-
-        int currentRow = fromRow + stepRow;
-        int currentCol = fromCol + stepCol;
-
-        while (currentRow != toRow || currentCol != toCol) {
-            if (board[currentRow][currentCol].getType() != EMPTY) {
-                return false;
-            }
-            currentRow += stepRow;
-            currentCol += stepCol;
-        }
-
-        return true;
-    }
-
-    private void makeMove(Move move) {
-        board[move.toRow][move.toCol] = board[move.fromRow][move.fromCol];
-        board[move.fromRow][move.fromCol] = new ChessPiece(EMPTY, WHITE);
-        board[move.toRow][move.toCol].setMoved(true);
-        moveCount++;
+        return ChessMove.NONE;
     }
 
     private int getOpponentColor(int color) {
         return color == WHITE ? BLACK : WHITE;
     }
 
-    private boolean isCheckmate(int color) {
-        // 简化实现：检查是否被将军且无合法移动
-        return isInCheck(color) && !hasLegalMoves(color);
-    }
-
-    private boolean isStalemate(int color) {
-        // 简化实现：未被将军但无合法移动
-        return !isInCheck(color) && !hasLegalMoves(color);
-    }
-
-    private boolean isInCheck(int color) {
-        // 找到国王位置
-        int kingRow = -1, kingCol = -1;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j].getType() == KING && board[i][j].getColor() == color) {
-                    kingRow = i;
-                    kingCol = j;
-                    break;
-                }
-            }
-        }
-
-        if (kingRow == -1) return false;
-
-        // 检查对方所有棋子是否能攻击国王
-        int opponentColor = getOpponentColor(color);
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j].getColor() == opponentColor) {
-                    if (isValidMove(i, j, kingRow, kingCol)) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
-    }
-
-    private boolean hasLegalMoves(int color) {
-        for (int fromRow = 0; fromRow < BOARD_SIZE; fromRow++) {
-            for (int fromCol = 0; fromCol < BOARD_SIZE; fromCol++) {
-                if (board[fromRow][fromCol].getColor() == color) {
-                    for (int toRow = 0; toRow < BOARD_SIZE; toRow++) {
-                        for (int toCol = 0; toCol < BOARD_SIZE; toCol++) {
-                            if (isValidMove(fromRow, fromCol, toRow, toCol)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
     @Override
     public JSONObject getGameState() {
         JSONObject state = new JSONObject();
@@ -428,35 +311,10 @@ public class ChessGame extends BaseGame {
             state.put("blackPlayerName", blackPlayerName);
             state.put("players", playersToJson());
             state.put("spectators", spectatorsToJson());
-
-            // 序列化棋盘
-            JSONArray boardArray = new JSONArray();
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                JSONArray rowArray = new JSONArray();
-                for (int j = 0; j < BOARD_SIZE; j++) {
-                    JSONObject pieceObj = new JSONObject();
-                    pieceObj.put("type", board[i][j].getType());
-                    pieceObj.put("color", board[i][j].getColor());
-                    pieceObj.put("hasMoved", board[i][j].hasMoved());
-                    rowArray.put(pieceObj);
-                }
-                boardArray.put(rowArray);
-            }
-            state.put("board", boardArray);
-
-            // 序列化移动历史
-            JSONArray historyArray = new JSONArray();
-            for (Move move : moveHistory) {
-                JSONObject moveObj = new JSONObject();
-                moveObj.put("fromRow", move.fromRow);
-                moveObj.put("fromCol", move.fromCol);
-                moveObj.put("toRow", move.toRow);
-                moveObj.put("toCol", move.toCol);
-                moveObj.put("capturedType", move.capturedPiece.getType());
-                moveObj.put("capturedColor", move.capturedPiece.getColor());
-                historyArray.put(moveObj);
-            }
-            state.put("moveHistory", historyArray);
+            state.put("stateHash", position.getKey());
+            // 局面用 FEN 表示，着法记录每步 16 位、按 4 个十六进制字符拼接
+            state.put("fen", position.toFen());
+            state.put("moves", encodeMoves());
 
         } catch (JSONException e) {
             e.printStackTrace();
@@ -480,73 +338,75 @@ public class ChessGame extends BaseGame {
             if (state.has("players")) playersFromJson(state.getJSONArray("players"));
             if (state.has("spectators")) spectatorsFromJson(state.getJSONArray("spectators"));
 
-            // 反序列化棋盘
-            JSONArray boardArray = state.getJSONArray("board");
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                JSONArray rowArray = boardArray.getJSONArray(i);
-                for (int j = 0; j < BOARD_SIZE; j++) {
-                    JSONObject pieceObj = rowArray.getJSONObject(j);
-                    int type = pieceObj.getInt("type");
-                    int color = pieceObj.getInt("color");
-                    boolean hasMoved = pieceObj.getBoolean("hasMoved");
-                    board[i][j] = new ChessPiece(type, color);
-                    board[i][j].setMoved(hasMoved);
-                }
+            // 反序列化局面：重放着法记录得到可撤销、可判断重复局面的完整历史，
+            // 着法记录无效或重放结果与 FEN 不一致时直接按 FEN 摆局面
+            String fen = state.getString("fen");
+            if (!replayMoves(state.optString("moves", "")) || !fen.equals(position.toFen())) {
+                android.util.Log.w("ChessGame", "着法记录与 FEN 不一致，按 FEN 恢复局面: " + gameId);
+                position.setFen(fen);
             }
-
-            // 反序列化移动历史
-            JSONArray historyArray = state.getJSONArray("moveHistory");
-            moveHistory.clear();
-            for (int i = 0; i < historyArray.length(); i++) {
-                JSONObject moveObj = historyArray.getJSONObject(i);
-                int fromRow = moveObj.getInt("fromRow");
-                int fromCol = moveObj.getInt("fromCol");
-                int toRow = moveObj.getInt("toRow");
-                int toCol = moveObj.getInt("toCol");
-                int capturedType = moveObj.getInt("capturedType");
-                int capturedColor = moveObj.getInt("capturedColor");
-                ChessPiece capturedPiece = new ChessPiece(capturedType, capturedColor);
-                Move move = new Move(fromRow, fromCol, toRow, toCol, capturedPiece);
-                moveHistory.push(move);
+            if (state.has("stateHash") && state.getLong("stateHash") != position.getKey()) {
+                android.util.Log.w("ChessGame", "局面哈希不一致，本地棋盘与发送方不同步: " + gameId);
             }
 
-            // 根据 moveCount 推断回合（保证视图与游戏逻辑一致）
-            this.turnColor = (this.moveCount % 2 == 0) ? WHITE : BLACK;
-
-        } catch (JSONException e) {
+        } catch (JSONException | IllegalArgumentException e) {
             e.printStackTrace();
         }
     }
 
-    // 内部类用于表示移动
-    private static class Move {
-        int fromRow, fromCol, toRow, toCol;
-        ChessPiece capturedPiece;
-
-        Move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece capturedPiece) {
-            this.fromRow = fromRow;
-            this.fromCol = fromCol;
-            this.toRow = toRow;
-            this.toCol = toCol;
-            this.capturedPiece = capturedPiece;
+    private String encodeMoves() {
+        int size = position.getHistorySize();
+        char[] chars = new char[size * 4];
+        for (int i = 0; i < size; i++) {
+            int move = position.getHistoryMove(i);
+            for (int k = 0; k < 4; k++) {
+                chars[i * 4 + k] = Character.forDigit((move >>> (12 - 4 * k)) & 0xF, 16);
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 把局面同步到着法记录的末尾：本地历史是记录的前缀时（通常只差对方刚走的一步）只补走新的着法，
+     * 否则从初始局面整体重放。每步都必须是当时的合法着法。
+     * @return 着法记录有效并已全部走完
+     */
+    private boolean replayMoves(String encoded) {
+        if (encoded.length() % 4 != 0) return false;
+        int count = encoded.length() / 4;
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            int move = 0;
+            for (int k = 0; k < 4; k++) {
+                int digit = Character.digit(encoded.charAt(i * 4 + k), 16);
+                if (digit < 0) return false;
+                move = (move << 4) | digit;
+            }
+            moves[i] = move;
         }
-    }
 
-    // 内部类用于表示棋子
-    private static class ChessPiece {
-        private int type;
-        private int color;
-        private boolean hasMoved;
+        int common = 0;
+        int size = position.getHistorySize();
+        while (common < size && common < count && position.getHistoryMove(common) == moves[common]) common++;
+        if (common == 0) {
+            // 按 FEN 摆出的局面没有历史，也从初始局面重放
+            position.setupInitial();
+        } else {
+            while (position.getHistorySize() > common) position.unmake();
+        }
 
-        ChessPiece(int type, int color) {
-            this.type = type;
-            this.color = color;
-            this.hasMoved = false;
+        for (int i = common; i < count; i++) {
+            if (!isLegalMove(moves[i])) return false;
+            position.make(moves[i]);
         }
+        return true;
+    }
 
-        int getType() { return type; }
-        int getColor() { return color; }
-        boolean hasMoved() { return hasMoved; }
-        void setMoved(boolean moved) { this.hasMoved = moved; }
+    private boolean isLegalMove(int move) {
+        int count = moveGenerator.generateLegal(position, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            if (moveBuffer[i] == move) return true;
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
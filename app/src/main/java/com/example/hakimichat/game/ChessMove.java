@@ -0,0 +1,78 @@
+package com.example.hakimichat.game;
+
+/**
+ * 国际象棋着法编码（不创建对象，着法就是一个 int）
+ * 低 6 位为起点格，6-11 位为终点格，12-15 位为着法类型，共 16 位。
+ * 格子编号 sq = row * 8 + col，与 ChessBitboards 一致。
+ * 着法类型中第 2 位表示吃子，第 3 位表示升变，升变时低 2 位为升变的兵种（马、象、车、后）。
+ */
+public final class ChessMove {
+
+    public static final int NONE = 0;
+
+    // 着法类型
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    // 升变类型低 2 位对应的兵种
+    private static final int[] PROMOTION_TYPES = {
+            ChessGame.KNIGHT, ChessGame.BISHOP, ChessGame.ROOK, ChessGame.QUEEN
+    };
+
+    private ChessMove() {
+    }
+
+    public static int of(int from, int to, int flag) {
+        return from | (to << 6) | (flag << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flag(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flag(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flag = flag(move);
+        return flag == KING_CASTLE || flag == QUEEN_CASTLE;
+    }
+
+    /**
+     * 升变后的兵种（非升变着法返回 ChessGame.EMPTY）
+     */
+    public static int promotionType(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flag(move) & 3] : ChessGame.EMPTY;
+    }
+
+    /**
+     * 升变着法的类型：base 为 PROMOTION 或 PROMOTION_CAPTURE，type 为升变兵种
+     */
+    public static int promotionFlag(int base, int type) {
+        switch (type) {
+            case ChessGame.KNIGHT: return base;
+            case ChessGame.BISHOP: return base | 1;
+            case ChessGame.ROOK: return base | 2;
+            default: return base | 3;
+        }
+    }
+}
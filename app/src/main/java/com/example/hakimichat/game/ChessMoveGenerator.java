@@ -0,0 +1,275 @@
+package com.example.hakimichat.game;
+
+/**
+ * 基于位棋盘的国际象棋着法生成器（完整规则：王车易位、吃过路兵、升变）
+ * 读取 ChessPosition 中每方每兵种的位棋盘，着法写入调用方提供的 int 数组（见 ChessMove），返回着法数量。
+ * 合法着法直接用掩码生成，不需要逐个 make/unmake：
+ * 王只走到不被攻击的格子（计算攻击时把王本身从占位中去掉）；双将时只能走王；
+ * 单将时其余棋子只能吃掉将军的棋子或挡在中间（将军掩码）；被牵制的棋子只能沿牵制线移动。
+ * 只有吃过路兵（可能同时移走两个挡子）仍用 make/unmake 检查。
+ * 一个实例不能在多个线程间共享。
+ */
+public class ChessMoveGenerator {
+
+    // 任何局面的着法数都不超过 218
+    public static final int MAX_MOVES = 256;
+
+    private static final int WHITE = ChessGame.WHITE;
+    private static final int PAWN = ChessGame.PAWN;
+    private static final int ROOK = ChessGame.ROOK;
+    private static final int KNIGHT = ChessGame.KNIGHT;
+    private static final int BISHOP = ChessGame.BISHOP;
+    private static final int QUEEN = ChessGame.QUEEN;
+    private static final int KING = ChessGame.KING;
+
+    // 兵的起始行（可走两格）和升变行（白兵到第 0 行，黑兵到第 7 行）
+    private static final long WHITE_PAWN_START = 0xFFL << 48;
+    private static final long BLACK_PAWN_START = 0xFFL << 8;
+    private static final long PROMOTION_RANKS = 0xFFL | (0xFFL << 56);
+
+    // 升变的生成顺序：后优先
+    private static final int[] PROMOTION_ORDER = {QUEEN, KNIGHT, ROOK, BISHOP};
+
+    // 王车易位（白短、白长、黑短、黑长）：权利位、王的起终点、车的起点、之间必须为空的格子
+    private static final int[] CASTLE_RIGHT = {
+            ChessPosition.WHITE_KING_SIDE, ChessPosition.WHITE_QUEEN_SIDE,
+            ChessPosition.BLACK_KING_SIDE, ChessPosition.BLACK_QUEEN_SIDE
+    };
+    private static final int[] CASTLE_KING_FROM = {60, 60, 4, 4};
+    private static final int[] CASTLE_KING_TO = {62, 58, 6, 2};
+    private static final int[] CASTLE_ROOK_FROM = {63, 56, 7, 0};
+    private static final long[] CASTLE_EMPTY = {
+            (1L << 61) | (1L << 62), (1L << 57) | (1L << 58) | (1L << 59),
+            (1L << 5) | (1L << 6), (1L << 1) | (1L << 2) | (1L << 3)
+    };
+    private static final int[] CASTLE_FLAG = {
+            ChessMove.KING_CASTLE, ChessMove.QUEEN_CASTLE, ChessMove.KING_CASTLE, ChessMove.QUEEN_CASTLE
+    };
+
+    private final int[] scratchMoves = new int[MAX_MOVES];
+
+    /**
+     * 生成行棋方的伪合法着法（不检查是否送将；易位仍要求不在将军中且不经过被攻击的格子）
+     */
+    public int generatePseudoLegal(ChessPosition position, int[] moves) {
+        return generate(position, moves, false);
+    }
+
+    /**
+     * 生成行棋方的合法着法（走完后己方王不被攻击）
+     */
+    public int generateLegal(ChessPosition position, int[] moves) {
+        return generate(position, moves, true);
+    }
+
+    /**
+     * 行棋方是否至少有一个合法着法
+     */
+    public boolean hasLegalMove(ChessPosition position) {
+        return generate(position, scratchMoves, true) > 0;
+    }
+
+    /**
+     * 判断伪合法着法走完后行棋方的王是否安全
+     */
+    public boolean isLegal(ChessPosition position, int move) {
+        int side = position.getSideToMove();
+        position.make(move);
+        boolean legal = !position.isInCheck(side);
+        position.unmake();
+        return legal;
+    }
+
+    private int generate(ChessPosition position, int[] moves, boolean legalOnly) {
+        int count = 0;
+        int side = position.getSideToMove();
+        int enemySide = side ^ 1;
+        long[][] pieces = position.pieces;
+        long own = position.occupancy[side];
+        long enemy = position.occupancy[enemySide];
+        long occupied = own | enemy;
+
+        // 非王棋子允许到达的格子，以及被牵制的棋子
+        long checkMask = ~0L;
+        long pinned = 0;
+        long kingBoard = pieces[side][KING];
+        int kingSq = (kingBoard != 0) ? Long.numberOfTrailingZeros(kingBoard) : ChessPosition.NO_SQUARE;
+        if (kingSq != ChessPosition.NO_SQUARE) {
+            long targets = ChessBitboards.kingAttacks(kingSq) & ~own;
+            // 王后退时仍会被同一条线上的滑子攻击，所以去掉王再算攻击
+            long withoutKing = occupied ^ kingBoard;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (legalOnly && attackersTo(position, to, enemySide, withoutKing) != 0) continue;
+                moves[count++] = ChessMove.of(kingSq, to, ((enemy >>> to) & 1) != 0 ? ChessMove.CAPTURE : ChessMove.QUIET);
+            }
+
+            long checkers = attackersTo(position, kingSq, enemySide, occupied);
+            if (checkers == 0) {
+                count = addCastling(position, moves, count, side, occupied);
+            } else if (legalOnly) {
+                // 双将只能走王
+                if ((checkers & (checkers - 1)) != 0) return count;
+                checkMask = checkers | ChessBitboards.between(kingSq, Long.numberOfTrailingZeros(checkers));
+            }
+            if (legalOnly) pinned = pinnedPieces(position, kingSq, side, occupied);
+        }
+        long targetMask = ~own & checkMask;
+
+        // 兵：前进一格、两格、斜吃、升变以及吃过路兵
+        long empty = ~occupied;
+        long pawnStart = (side == WHITE) ? WHITE_PAWN_START : BLACK_PAWN_START;
+        int push = (side == WHITE) ? -8 : 8;
+        int enPassant = position.getEnPassantSquare();
+        long pawns = pieces[side][PAWN];
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask;
+            if (((pinned >>> from) & 1) != 0) allowed &= ChessBitboards.line(kingSq, from);
+
+            int forward = from + push;
+            if (forward >= 0 && forward < 64 && ((empty >>> forward) & 1) != 0) {
+                if (((allowed >>> forward) & 1) != 0) count = addPawnMove(moves, count, from, forward, false);
+                int twoForward = forward + push;
+                if (((pawnStart >>> from) & 1) != 0 && ((empty & allowed) >>> twoForward & 1) != 0) {
+                    moves[count++] = ChessMove.of(from, twoForward, ChessMove.DOUBLE_PAWN_PUSH);
+                }
+            }
+            long attacks = ChessBitboards.pawnAttacks(side, from);
+            long captures = attacks & enemy & allowed;
+            while (captures != 0) {
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                count = addPawnMove(moves, count, from, to, true);
+            }
+            if (enPassant != ChessPosition.NO_SQUARE && ((attacks >>> enPassant) & 1) != 0) {
+                int move = ChessMove.of(from, enPassant, ChessMove.EN_PASSANT);
+                if (!legalOnly || isLegal(position, move)) moves[count++] = move;
+            }
+        }
+
+        // 被牵制的马无法沿牵制线移动
+        long knights = pieces[side][KNIGHT] & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(moves, count, from, ChessBitboards.knightAttacks(from) & targetMask, enemy);
+        }
+
+        long bishops = pieces[side][BISHOP];
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            long targets = ChessBitboards.bishopAttacks(from, occupied) & targetMask;
+            count = addMoves(moves, count, from, pinLimit(targets, pinned, kingSq, from), enemy);
+        }
+
+        long rooks = pieces[side][ROOK];
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            long targets = ChessBitboards.rookAttacks(from, occupied) & targetMask;
+            count = addMoves(moves, count, from, pinLimit(targets, pinned, kingSq, from), enemy);
+        }
+
+        long queens = pieces[side][QUEEN];
+        while (queens != 0) {
+            int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            long targets = ChessBitboards.queenAttacks(from, occupied) & targetMask;
+            count = addMoves(moves, count, from, pinLimit(targets, pinned, kingSq, from), enemy);
+        }
+        return count;
+    }
+
+    /**
+     * 格子 sq 是否被 bySide 方攻击
+     */
+    public static boolean isSquareAttacked(ChessPosition position, int sq, int bySide) {
+        long[] attacker = position.pieces[bySide];
+        // 从目标格反向看：对方兵的攻击来自本方兵能吃到的格子
+        if ((ChessBitboards.pawnAttacks(bySide ^ 1, sq) & attacker[PAWN]) != 0) return true;
+        if ((ChessBitboards.knightAttacks(sq) & attacker[KNIGHT]) != 0) return true;
+        if ((ChessBitboards.kingAttacks(sq) & attacker[KING]) != 0) return true;
+        long occupied = position.getOccupied();
+        long diagonal = attacker[BISHOP] | attacker[QUEEN];
+        if (diagonal != 0 && (ChessBitboards.bishopAttacks(sq, occupied) & diagonal) != 0) return true;
+        long straight = attacker[ROOK] | attacker[QUEEN];
+        return straight != 0 && (ChessBitboards.rookAttacks(sq, occupied) & straight) != 0;
+    }
+
+    /**
+     * 在给定占位下攻击格子 sq 的 bySide 方棋子
+     */
+    private static long attackersTo(ChessPosition position, int sq, int bySide, long occupied) {
+        long[] attacker = position.pieces[bySide];
+        return (ChessBitboards.pawnAttacks(bySide ^ 1, sq) & attacker[PAWN])
+                | (ChessBitboards.knightAttacks(sq) & attacker[KNIGHT])
+                | (ChessBitboards.kingAttacks(sq) & attacker[KING])
+                | (ChessBitboards.bishopAttacks(sq, occupied) & (attacker[BISHOP] | attacker[QUEEN]))
+                | (ChessBitboards.rookAttacks(sq, occupied) & (attacker[ROOK] | attacker[QUEEN]));
+    }
+
+    /**
+     * 与王之间只隔一个己方棋子、且被对方车/象/后对准的棋子
+     */
+    private static long pinnedPieces(ChessPosition position, int kingSq, int side, long occupied) {
+        long[] attacker = position.pieces[side ^ 1];
+        long snipers = (ChessBitboards.rookAttacks(kingSq, 0) & (attacker[ROOK] | attacker[QUEEN]))
+                | (ChessBitboards.bishopAttacks(kingSq, 0) & (attacker[BISHOP] | attacker[QUEEN]));
+        long own = position.occupancy[side];
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = ChessBitboards.between(kingSq, sniper) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) pinned |= blockers & own;
+        }
+        return pinned;
+    }
+
+    private static long pinLimit(long targets, long pinned, int kingSq, int from) {
+        if (((pinned >>> from) & 1) == 0) return targets;
+        return targets & ChessBitboards.line(kingSq, from);
+    }
+
+    private static int addCastling(ChessPosition position, int[] moves, int count, int side, long occupied) {
+        int rights = position.getCastlingRights();
+        int king = ChessPosition.piece(KING, side);
+        int rook = ChessPosition.piece(ROOK, side);
+        for (int i = side * 2; i < side * 2 + 2; i++) {
+            if ((rights & CASTLE_RIGHT[i]) == 0 || (occupied & CASTLE_EMPTY[i]) != 0) continue;
+            int from = CASTLE_KING_FROM[i], to = CASTLE_KING_TO[i];
+            // 摆出来的局面可能带着不符的权利，再核对一次王和车
+            if (position.pieceAt(from) != king || position.pieceAt(CASTLE_ROOK_FROM[i]) != rook) continue;
+            // 王经过和到达的格子都不能被攻击
+            if (isSquareAttacked(position, (from + to) >> 1, side ^ 1) || isSquareAttacked(position, to, side ^ 1)) continue;
+            moves[count++] = ChessMove.of(from, to, CASTLE_FLAG[i]);
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int[] moves, int count, int from, int to, boolean capture) {
+        if (((PROMOTION_RANKS >>> to) & 1) != 0) {
+            int base = capture ? ChessMove.PROMOTION_CAPTURE : ChessMove.PROMOTION;
+            for (int type : PROMOTION_ORDER) {
+                moves[count++] = ChessMove.of(from, to, ChessMove.promotionFlag(base, type));
+            }
+            return count;
+        }
+        moves[count++] = ChessMove.of(from, to, capture ? ChessMove.CAPTURE : ChessMove.QUIET);
+        return count;
+    }
+
+    private static int addMoves(int[] moves, int count, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flag = ((enemy >>> to) & 1) != 0 ? ChessMove.CAPTURE : ChessMove.QUIET;
+            moves[count++] = ChessMove.of(from, to, flag);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.hakimichat.game;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.LruCache;
+
+import com.example.hakimichat.R;
+
+/**
+ * 国际象棋棋子图集（进程内共享）
+ * 12 个棋子按边长缩放后拼在一张位图上：每列一个兵种（PAWN..KING），第 0 行白方、第 1 行黑方。
+ * 图集按棋子边长缓存，只保留最近使用的几种尺寸，Activity 重建和多个观战视图都复用同一份位图。
+ * 被淘汰的图集不主动回收（可能仍有视图在绘制），由 GC 释放。
+ */
+public final class ChessPieceAtlas {
+
+    // 缓存的尺寸数（屏幕旋转、分屏等情况下通常只有一两种）
+    private static final int MAX_CACHED_SIZES = 3;
+    private static final int TYPE_COUNT = ChessGame.KING;
+
+    // PIECE_RES[color][type]
+    private static final int[][] PIECE_RES = {
+            {0, R.drawable.pawn_white, R.drawable.rook_white, R.drawable.knight_white,
+                    R.drawable.bishop_white, R.drawable.queen_white, R.drawable.king_white},
+            {0, R.drawable.pawn_black, R.drawable.rook_black, R.drawable.knight_black,
+                    R.drawable.bishop_black, R.drawable.queen_black, R.drawable.king_black}
+    };
+
+    private static final LruCache<Integer, ChessPieceAtlas> CACHE = new LruCache<>(MAX_CACHED_SIZES);
+
+    private final Bitmap bitmap;
+    private final int pieceSize;
+    private final Rect srcRect = new Rect();
+    private final Rect dstRect = new Rect();
+
+    private ChessPieceAtlas(Bitmap bitmap, int pieceSize) {
+        this.bitmap = bitmap;
+        this.pieceSize = pieceSize;
+    }
+
+    /**
+     * 已缓存的指定边长的图集，没有时返回 null（不解码，可在主线程调用）
+     */
+    public static ChessPieceAtlas getCached(int pieceSize) {
+        return CACHE.get(pieceSize);
+    }
+
+    /**
+     * 取得指定边长的图集，没有缓存时解码并缩放全部棋子图片（耗时，应在后台线程调用）
+     * 多个视图同时请求同一尺寸时只解码一次。
+     * @return 图集，内存不足时返回 null
+     */
+    public static synchronized ChessPieceAtlas obtain(Resources res, int pieceSize) {
+        ChessPieceAtlas atlas = CACHE.get(pieceSize);
+        if (atlas != null) return atlas;
+        try {
+            atlas = build(res, pieceSize);
+        } catch (OutOfMemoryError oom) {
+            android.util.Log.w("ChessPieceAtlas", "OOM building atlas, size=" + pieceSize, oom);
+            return null;
+        }
+        CACHE.put(pieceSize, atlas);
+        return atlas;
+    }
+
+    private static ChessPieceAtlas build(Resources res, int pieceSize) {
+        Bitmap bitmap = Bitmap.createBitmap(pieceSize * TYPE_COUNT, pieceSize * 2, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
+        Rect dst = new Rect();
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inScaled = false;
+        opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        for (int color = ChessGame.WHITE; color <= ChessGame.BLACK; color++) {
+            for (int type = ChessGame.PAWN; type <= ChessGame.KING; type++) {
+                Bitmap source = BitmapFactory.decodeResource(res, PIECE_RES[color][type], opts);
+                if (source == null) {
+                    android.util.Log.w("ChessPieceAtlas", "decode failed, type=" + type + ", color=" + color);
+                    continue;
+                }
+                int left = (type - 1) * pieceSize;
+                int top = color * pieceSize;
+                dst.set(left, top, left + pieceSize, top + pieceSize);
+                canvas.drawBitmap(source, null, dst, paint);
+                source.recycle();
+            }
+        }
+        return new ChessPieceAtlas(bitmap, pieceSize);
+    }
+
+    public int getPieceSize() {
+        return pieceSize;
+    }
+
+    /**
+     * 以 (left, top) 为左上角绘制一个棋子（只在主线程调用）
+     */
+    public void draw(Canvas canvas, int type, int color, int left, int top) {
+        if (type < ChessGame.PAWN || type > ChessGame.KING) return;
+        int srcLeft = (type - 1) * pieceSize;
+        int srcTop = color * pieceSize;
+        srcRect.set(srcLeft, srcTop, srcLeft + pieceSize, srcTop + pieceSize);
+        dstRect.set(left, top, left + pieceSize, top + pieceSize);
+        canvas.drawBitmap(bitmap, srcRect, dstRect, null);
+    }
+}
@@ -0,0 +1,477 @@
+package com.example.hakimichat.game;
+
+import java.util.Arrays;
+
+/**
+ * 国际象棋局面（紧凑的原始类型表示）
+ * 每格一个字节（0 为空，否则为 type | color << 3），同时维护每方每兵种的位棋盘和每方的占位。
+ * make/unmake 可逆，撤销信息保存在预分配的数组中，走子、验证、将军检测和搜索都不分配对象。
+ * 格子编号 sq = row * 8 + col，与 ChessGame 的 row/col 一致。
+ * 除棋子外还记录王车易位权利和吃过路兵的目标格，二者随着法入栈，unmake 时原样恢复。
+ * Zobrist 哈希的棋子部分随棋子的增删增量维护，取哈希时再并入行棋方、易位权利和过路兵。
+ * 每步走之前的哈希记入历史，配合半回合计数判断重复局面和五十回合规则。
+ * 局面可以与 FEN 互相转换（setFen/toFen），网络同步时用 FEN 描述局面。
+ */
+public class ChessPosition {
+
+    public static final int NO_PIECE = 0;
+    public static final int NO_SQUARE = -1;
+
+    // 王车易位权利位
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    private static final int INITIAL_HISTORY_CAPACITY = 256;
+    // FEN 棋子字母，下标即兵种
+    private static final String FEN_PIECES = " prnbqk";
+
+    private static final int WHITE = ChessGame.WHITE;
+    private static final int BLACK = ChessGame.BLACK;
+    private static final int[] BACK_RANK = {
+            ChessGame.ROOK, ChessGame.KNIGHT, ChessGame.BISHOP, ChessGame.QUEEN,
+            ChessGame.KING, ChessGame.BISHOP, ChessGame.KNIGHT, ChessGame.ROOK
+    };
+
+    // 王和车的初始格
+    private static final int WHITE_KING_SQ = 60;
+    private static final int WHITE_ROOK_KING_SIDE = 63;
+    private static final int WHITE_ROOK_QUEEN_SIDE = 56;
+    private static final int BLACK_KING_SQ = 4;
+    private static final int BLACK_ROOK_KING_SIDE = 7;
+    private static final int BLACK_ROOK_QUEEN_SIDE = 0;
+
+    // 着法起点或终点为某格时保留的易位权利（王、车离开原位或车被吃掉都会失去相应权利）
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[WHITE_KING_SQ] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[WHITE_ROOK_KING_SIDE] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[WHITE_ROOK_QUEEN_SIDE] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[BLACK_KING_SQ] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASK[BLACK_ROOK_KING_SIDE] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[BLACK_ROOK_QUEEN_SIDE] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    // 着法生成的热点路径直接读取，包级可见
+    final byte[] squares = new byte[64];
+    final long[][] pieces = new long[2][ChessGame.KING + 1];
+    final long[] occupancy = new long[2];
+
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int enPassantSquare = NO_SQUARE;
+    // 自上次吃子或走兵以来的半回合数
+    private int halfmoveClock;
+    // 回合数（从 1 开始，黑方走完后加 1）
+    private int fullmoveNumber = 1;
+    // 棋子部分的 Zobrist 哈希
+    private long pieceKey;
+
+    // 撤销栈：着法、被吃的棋子、走之前的局面哈希以及其余状态
+    // （historyState 低 4 位为易位权利，4-10 位为过路兵格 + 1，11 位以上为半回合计数）
+    private int[] historyMoves = new int[INITIAL_HISTORY_CAPACITY];
+    private byte[] historyCaptured = new byte[INITIAL_HISTORY_CAPACITY];
+    private int[] historyState = new int[INITIAL_HISTORY_CAPACITY];
+    private long[] historyKeys = new long[INITIAL_HISTORY_CAPACITY];
+    private int historySize;
+
+    public static int piece(int type, int color) {
+        return type | (color << 3);
+    }
+
+    public static int typeOf(int piece) {
+        return piece & 7;
+    }
+
+    public static int colorOf(int piece) {
+        return piece >>> 3;
+    }
+
+    /**
+     * 清空棋盘和历史
+     */
+    public void clear() {
+        Arrays.fill(squares, (byte) NO_PIECE);
+        for (long[] bb : pieces) Arrays.fill(bb, 0L);
+        occupancy[WHITE] = 0;
+        occupancy[BLACK] = 0;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        pieceKey = 0;
+        historySize = 0;
+    }
+
+    /**
+     * 复制另一个局面（包括历史），用于把对局交给AI线程搜索
+     */
+    public void copyFrom(ChessPosition other) {
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        for (int color = WHITE; color <= BLACK; color++) {
+            System.arraycopy(other.pieces[color], 0, pieces[color], 0, pieces[color].length);
+            occupancy[color] = other.occupancy[color];
+        }
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        pieceKey = other.pieceKey;
+        historySize = other.historySize;
+        if (historyMoves.length < other.historyMoves.length) {
+            int capacity = other.historyMoves.length;
+            historyMoves = new int[capacity];
+            historyCaptured = new byte[capacity];
+            historyState = new int[capacity];
+            historyKeys = new long[capacity];
+        }
+        System.arraycopy(other.historyMoves, 0, historyMoves, 0, historySize);
+        System.arraycopy(other.historyCaptured, 0, historyCaptured, 0, historySize);
+        System.arraycopy(other.historyState, 0, historyState, 0, historySize);
+        System.arraycopy(other.historyKeys, 0, historyKeys, 0, historySize);
+    }
+
+    /**
+     * 摆出初始局面（黑方在第 0、1 行，白方在第 6、7 行）
+     */
+    public void setupInitial() {
+        clear();
+        for (int col = 0; col < 8; col++) {
+            put(col, BACK_RANK[col], BLACK);
+            put(8 + col, ChessGame.PAWN, BLACK);
+            put(48 + col, ChessGame.PAWN, WHITE);
+            put(56 + col, BACK_RANK[col], WHITE);
+        }
+        castlingRights = ALL_CASTLING;
+    }
+
+    /**
+     * 从 FEN 摆局面：棋子、行棋方、易位权利、过路兵格、半回合计数和回合数，历史清空
+     * @throws IllegalArgumentException FEN 格式错误
+     */
+    public void setFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) throw new IllegalArgumentException("FEN 字段不足: " + fen);
+        clear();
+
+        int sq = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                if (sq % 8 != 0) throw new IllegalArgumentException("FEN 横线长度错误: " + fen);
+            } else if (c >= '1' && c <= '8') {
+                sq += c - '0';
+            } else {
+                int type = FEN_PIECES.indexOf(Character.toLowerCase(c));
+                if (type <= 0 || sq >= 64) throw new IllegalArgumentException("FEN 棋子错误: " + fen);
+                put(sq++, type, Character.isUpperCase(c) ? WHITE : BLACK);
+            }
+        }
+        if (sq != 64) throw new IllegalArgumentException("FEN 棋盘不完整: " + fen);
+
+        if (fields[1].equals("w")) sideToMove = WHITE;
+        else if (fields[1].equals("b")) sideToMove = BLACK;
+        else throw new IllegalArgumentException("FEN 行棋方错误: " + fen);
+
+        for (int i = 0; i < fields[2].length(); i++) {
+            switch (fields[2].charAt(i)) {
+                case 'K': castlingRights |= WHITE_KING_SIDE; break;
+                case 'Q': castlingRights |= WHITE_QUEEN_SIDE; break;
+                case 'k': castlingRights |= BLACK_KING_SIDE; break;
+                case 'q': castlingRights |= BLACK_QUEEN_SIDE; break;
+                case '-': break;
+                default: throw new IllegalArgumentException("FEN 易位权利错误: " + fen);
+            }
+        }
+
+        if (!fields[3].equals("-")) {
+            int col = fields[3].charAt(0) - 'a';
+            int rank = fields[3].length() == 2 ? fields[3].charAt(1) - '0' : 0;
+            if (col < 0 || col >= 8 || rank < 1 || rank > 8) throw new IllegalArgumentException("FEN 过路兵格错误: " + fen);
+            enPassantSquare = (8 - rank) * 8 + col;
+        }
+
+        if (fields.length > 4) {
+            try {
+                halfmoveClock = Integer.parseInt(fields[4]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN 半回合计数错误: " + fen);
+            }
+        }
+        if (fields.length > 5) {
+            try {
+                fullmoveNumber = Math.max(1, Integer.parseInt(fields[5]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN 回合数错误: " + fen);
+            }
+        }
+    }
+
+    /**
+     * 当前局面的 FEN（六个字段齐全）
+     */
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            if (row > 0) sb.append('/');
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = squares[row * 8 + col];
+                if (piece == NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                char c = FEN_PIECES.charAt(typeOf(piece));
+                sb.append(colorOf(piece) == WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) sb.append(empty);
+        }
+
+        sb.append(sideToMove == WHITE ? " w " : " b ");
+        if (castlingRights == 0) sb.append('-');
+        if ((castlingRights & WHITE_KING_SIDE) != 0) sb.append('K');
+        if ((castlingRights & WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+        if ((castlingRights & BLACK_KING_SIDE) != 0) sb.append('k');
+        if ((castlingRights & BLACK_QUEEN_SIDE) != 0) sb.append('q');
+
+        sb.append(' ');
+        if (enPassantSquare == NO_SQUARE) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + enPassantSquare % 8)).append(8 - enPassantSquare / 8);
+        }
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    /**
+     * 在空格上放置棋子（用于摆局面）
+     */
+    public void put(int sq, int type, int color) {
+        addPiece(sq, piece(type, color));
+    }
+
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int color) {
+        this.sideToMove = color;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int rights) {
+        this.castlingRights = rights;
+    }
+
+    /**
+     * 可以吃过路兵时的目标格（刚走过两格的兵越过的格子），否则为 NO_SQUARE
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int sq) {
+        this.enPassantSquare = sq;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * 当前局面在上次吃子或走兵之后已经出现过的次数（不含当前这次）
+     * 只比较同一方行棋的局面，即每隔一步比较一次
+     */
+    public int getRepetitionCount() {
+        long key = getKey();
+        int count = 0;
+        int limit = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= limit; i -= 2) {
+            if (historyKeys[i] == key) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 双方都没有足够的子力将死对方（王对王、王单马或单象对王）
+     */
+    public boolean hasInsufficientMaterial() {
+        for (int color = WHITE; color <= BLACK; color++) {
+            long[] bb = pieces[color];
+            if ((bb[ChessGame.PAWN] | bb[ChessGame.ROOK] | bb[ChessGame.QUEEN]) != 0) return false;
+        }
+        long minors = pieces[WHITE][ChessGame.KNIGHT] | pieces[WHITE][ChessGame.BISHOP]
+                | pieces[BLACK][ChessGame.KNIGHT] | pieces[BLACK][ChessGame.BISHOP];
+        return Long.bitCount(minors) <= 1;
+    }
+
+    /**
+     * 局面的 Zobrist 哈希；过路兵只在行棋方确实有兵能吃时计入，避免同一局面得到不同哈希
+     */
+    public long getKey() {
+        long key = pieceKey ^ ChessZobrist.castling(castlingRights);
+        if (sideToMove == BLACK) key ^= ChessZobrist.side();
+        if (enPassantSquare != NO_SQUARE && (ChessBitboards.pawnAttacks(sideToMove ^ 1, enPassantSquare)
+                & pieces[sideToMove][ChessGame.PAWN]) != 0) {
+            key ^= ChessZobrist.enPassant(enPassantSquare);
+        }
+        return key;
+    }
+
+    public long getOccupied() {
+        return occupancy[WHITE] | occupancy[BLACK];
+    }
+
+    /**
+     * 执行着法（调用方保证着法至少是伪合法的）
+     */
+    public void make(int move) {
+        int from = ChessMove.from(move), to = ChessMove.to(move);
+        int flag = ChessMove.flag(move);
+        int moving = squares[from];
+        int color = colorOf(moving);
+        int capturedSq = capturedSquare(flag, to, color);
+        int captured = squares[capturedSq];
+        push(move, captured, getKey());
+
+        if (captured != NO_PIECE) removePiece(capturedSq, captured);
+        movePiece(from, to, moving);
+        if (ChessMove.isPromotion(move)) {
+            removePiece(to, moving);
+            addPiece(to, piece(ChessMove.promotionType(move), color));
+        } else if (flag == ChessMove.KING_CASTLE) {
+            movePiece(to + 1, to - 1, squares[to + 1]);
+        } else if (flag == ChessMove.QUEEN_CASTLE) {
+            movePiece(to - 2, to + 1, squares[to - 2]);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = (flag == ChessMove.DOUBLE_PAWN_PUSH) ? (from + to) >> 1 : NO_SQUARE;
+        halfmoveClock = (captured != NO_PIECE || typeOf(moving) == ChessGame.PAWN) ? 0 : halfmoveClock + 1;
+        if (color == BLACK) fullmoveNumber++;
+        sideToMove ^= 1;
+    }
+
+    /**
+     * 撤销最近一次 make
+     */
+    public void unmake() {
+        historySize--;
+        int move = historyMoves[historySize];
+        int captured = historyCaptured[historySize];
+        int state = historyState[historySize];
+        castlingRights = state & 0xF;
+        enPassantSquare = ((state >>> 4) & 0x7F) - 1;
+        halfmoveClock = state >>> 11;
+        sideToMove ^= 1;
+        if (sideToMove == BLACK) fullmoveNumber--;
+
+        int from = ChessMove.from(move), to = ChessMove.to(move);
+        int flag = ChessMove.flag(move);
+        int color = sideToMove;
+        if (ChessMove.isPromotion(move)) {
+            removePiece(to, squares[to]);
+            addPiece(from, piece(ChessGame.PAWN, color));
+        } else {
+            movePiece(to, from, squares[to]);
+            if (flag == ChessMove.KING_CASTLE) {
+                movePiece(to - 1, to + 1, squares[to - 1]);
+            } else if (flag == ChessMove.QUEEN_CASTLE) {
+                movePiece(to + 1, to - 2, squares[to + 1]);
+            }
+        }
+        if (captured != NO_PIECE) addPiece(capturedSquare(flag, to, color), captured);
+    }
+
+    // 吃过路兵时被吃的兵在终点格后方一格，其余着法就在终点格
+    private static int capturedSquare(int flag, int to, int color) {
+        if (flag != ChessMove.EN_PASSANT) return to;
+        return color == WHITE ? to + 8 : to - 8;
+    }
+
+    private void addPiece(int sq, int piece) {
+        long bit = 1L << sq;
+        int color = colorOf(piece);
+        squares[sq] = (byte) piece;
+        pieces[color][typeOf(piece)] |= bit;
+        occupancy[color] |= bit;
+        pieceKey ^= ChessZobrist.piece(piece, sq);
+    }
+
+    private void removePiece(int sq, int piece) {
+        long bit = 1L << sq;
+        int color = colorOf(piece);
+        squares[sq] = NO_PIECE;
+        pieces[color][typeOf(piece)] &= ~bit;
+        occupancy[color] &= ~bit;
+        pieceKey ^= ChessZobrist.piece(piece, sq);
+    }
+
+    private void movePiece(int from, int to, int piece) {
+        long bits = (1L << from) | (1L << to);
+        int color = colorOf(piece);
+        pieces[color][typeOf(piece)] ^= bits;
+        occupancy[color] ^= bits;
+        squares[to] = (byte) piece;
+        squares[from] = NO_PIECE;
+        pieceKey ^= ChessZobrist.piece(piece, from) ^ ChessZobrist.piece(piece, to);
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public int getHistoryMove(int index) {
+        return historyMoves[index];
+    }
+
+    /**
+     * color 方的王是否正被攻击（没有王时返回 false）
+     */
+    public boolean isInCheck(int color) {
+        long king = pieces[color][ChessGame.KING];
+        if (king == 0) return false;
+        return ChessMoveGenerator.isSquareAttacked(this, Long.numberOfTrailingZeros(king), color ^ 1);
+    }
+
+    private void push(int move, int captured, long key) {
+        if (historySize == historyMoves.length) {
+            int capacity = historySize * 2;
+            historyMoves = Arrays.copyOf(historyMoves, capacity);
+            historyCaptured = Arrays.copyOf(historyCaptured, capacity);
+            historyState = Arrays.copyOf(historyState, capacity);
+            historyKeys = Arrays.copyOf(historyKeys, capacity);
+        }
+        historyMoves[historySize] = move;
+        historyCaptured[historySize] = (byte) captured;
+        historyState[historySize] = castlingRights | ((enPassantSquare + 1) << 4) | (halfmoveClock << 11);
+        historyKeys[historySize] = key;
+        historySize++;
+    }
+}
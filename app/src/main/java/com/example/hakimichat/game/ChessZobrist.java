@@ -0,0 +1,51 @@
+package com.example.hakimichat.game;
+
+import java.util.Random;
+
+/**
+ * 国际象棋 Zobrist 哈希
+ * 键由固定种子生成，同一局面在所有设备、所有进程中的哈希都相同，可用于置换表和重复局面判断。
+ * 局面哈希 = 每个棋子的键 ^ 易位权利的键 ^ 过路兵所在列的键（仅在能吃过路兵时）^ 黑方行棋的键。
+ */
+public final class ChessZobrist {
+
+    private static final long SEED = 0x4348455353L;
+
+    // PIECE_KEYS[piece][sq]，piece 为 ChessPosition 的棋子编码（type | color << 3）
+    private static final long[][] PIECE_KEYS = new long[16][64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long SIDE_KEY;
+
+    static {
+        Random rand = new Random(SEED);
+        for (int color = ChessGame.WHITE; color <= ChessGame.BLACK; color++) {
+            for (int type = ChessGame.PAWN; type <= ChessGame.KING; type++) {
+                long[] keys = PIECE_KEYS[ChessPosition.piece(type, color)];
+                for (int sq = 0; sq < 64; sq++) keys[sq] = rand.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING_KEYS.length; i++) CASTLING_KEYS[i] = rand.nextLong();
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) EN_PASSANT_KEYS[i] = rand.nextLong();
+        SIDE_KEY = rand.nextLong();
+    }
+
+    private ChessZobrist() {
+    }
+
+    public static long piece(int piece, int sq) {
+        return PIECE_KEYS[piece][sq];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING_KEYS[rights];
+    }
+
+    public static long enPassant(int sq) {
+        return EN_PASSANT_KEYS[sq & 7];
+    }
+
+    public static long side() {
+        return SIDE_KEY;
+    }
+}
@@ -16,12 +16,16 @@ import android.graphics.Color;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.hakimichat.AvatarGlyphCache;
 import com.example.hakimichat.R;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class GobangActivity extends AppCompatActivity {
 
     public static final String EXTRA_GAME_ID = "game_id";
@@ -47,6 +51,11 @@ public class GobangActivity extends AppCompatActivity {
     private GameManager gameManager;
     private Handler mainHandler;
 
+    // AI计算与后台思考共用一个单线程执行器，保证引擎不会被并发访问
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor();
+    private GobangSearchController ponderController;
+    private boolean isAiThinking = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -74,6 +83,11 @@ public class GobangActivity extends AppCompatActivity {
             game.setStrictMode(true);
         }
 
+        // 单机模式在AI线程上懒加载开局库，保证在AI第一次落子前完成且不阻塞主线程
+        if (isSinglePlayer) {
+            aiExecutor.execute(() -> game.setOpeningBook(GobangOpeningBook.get(getApplicationContext())));
+        }
+
         initViews();
         setupListeners();
         updateUI();
@@ -82,7 +96,7 @@ public class GobangActivity extends AppCompatActivity {
         if (isSinglePlayer && game.canStart()) {
             String currentPlayer = game.getCurrentPlayer();
             if (currentPlayer != null && !currentPlayer.equals(username)) {
-                mainHandler.postDelayed(this::performAIMove, 500);
+                mainHandler.post(this::performAIMove);
             }
         }
 
@@ -281,6 +295,8 @@ public class GobangActivity extends AppCompatActivity {
                 if (game.canUndo() && game.undoMove()) {
                     updateUI();
                     showToast("已悔棋");
+                    // 局面已变化，重新开始后台思考
+                    startPondering();
                 } else {
                     showToast("当前无法悔棋");
                 }
@@ -294,6 +310,7 @@ public class GobangActivity extends AppCompatActivity {
             if (isSinglePlayer) {
                 // 单机模式：只在本地重置
                 if (game != null) {
+                    stopPondering();
                     game.reset();
                     updateUI();
                     btnRestart.setVisibility(Button.GONE);
@@ -301,7 +318,7 @@ public class GobangActivity extends AppCompatActivity {
                     // 如果是AI先手，触发AI移动
                     String currentPlayer = game.getCurrentPlayer();
                     if (currentPlayer != null && !currentPlayer.equals(username)) {
-                        mainHandler.postDelayed(this::performAIMove, 500);
+                        mainHandler.post(this::performAIMove);
                     }
                 }
             } else {
@@ -404,7 +421,7 @@ public class GobangActivity extends AppCompatActivity {
 
             // 如果是单机模式，触发AI回复
             if (isSinglePlayer) {
-                mainHandler.postDelayed(this::performAIMove, 500);
+                mainHandler.post(this::performAIMove);
             }
         } catch (JSONException e) {
             e.printStackTrace();
@@ -435,16 +452,54 @@ public class GobangActivity extends AppCompatActivity {
         // 只有当轮到AI时才移动
         if (!aiName.equals(current)) return;
 
-        Point aiMove = game.getAiMove();
-        if (aiMove != null) {
-            try {
-                JSONObject moveData = new JSONObject();
-                moveData.put("x", aiMove.x);
-                moveData.put("y", aiMove.y);
-                gameManager.sendGameMove(gameId, aiName, moveData);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+        // 已经在计算中（落子后的状态回调可能再次触发）
+        if (isAiThinking) return;
+        isAiThinking = true;
+
+        // 停止后台思考，其结果已保存在置换表中，接下来的搜索可以直接复用
+        stopPondering();
+
+        final String aiPlayer = aiName;
+        final int[][] snapshot = game.getBoardSnapshot();
+        aiExecutor.execute(() -> {
+            Point aiMove = game.getAiMove(snapshot);
+            mainHandler.post(() -> {
+                isAiThinking = false;
+                if (isFinishing() || aiMove == null) return;
+                try {
+                    JSONObject moveData = new JSONObject();
+                    moveData.put("x", aiMove.x);
+                    moveData.put("y", aiMove.y);
+                    gameManager.sendGameMove(gameId, aiPlayer, moveData);
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+                startPondering();
+            });
+        });
+    }
+
+    /**
+     * 轮到真人玩家时，让AI在后台预先思考可能的应对
+     */
+    private void startPondering() {
+        stopPondering();
+        if (!isSinglePlayer || game == null || game.isGameOver() || isFinishing()) return;
+
+        String current = game.getCurrentPlayer();
+        if (current == null || !current.equals(username)) return;
+
+        GobangSearchController controller = game.createPonderController();
+        if (controller == null) return;
+        ponderController = controller;
+        final int[][] snapshot = game.getBoardSnapshot();
+        aiExecutor.execute(() -> game.ponder(snapshot, controller));
+    }
+
+    private void stopPondering() {
+        if (ponderController != null) {
+            ponderController.stop();
+            ponderController = null;
         }
     }
 
@@ -465,25 +520,10 @@ public class GobangActivity extends AppCompatActivity {
             tvWhitePlayer.setText("白方: ");
         }
 
-        // 头像显示：将头像绘制为昵称首字符（类似聊天），若为 AI（以"电脑"开头）也显示首字
+        // 头像显示：昵称首字符（类似聊天），AI（以"电脑"开头）显示"电"
         try {
-            int sizeDp = 44; // 与布局中宽高一致
-            float density = getResources().getDisplayMetrics().density;
-            int sizePx = Math.round(sizeDp * density);
-
-            if (blackPlayer != null) {
-                String displayName = blackPlayer.startsWith("电脑") ? "电" : (blackPlayer.isEmpty() ? "?" : String.valueOf(blackPlayer.charAt(0)));
-                ivBlackAvatar.setText(displayName);
-            } else {
-                ivBlackAvatar.setText("");
-            }
-
-            if (whitePlayer != null) {
-                String displayName = whitePlayer.startsWith("电脑") ? "电" : (whitePlayer.isEmpty() ? "?" : String.valueOf(whitePlayer.charAt(0)));
-                ivWhiteAvatar.setText(displayName);
-            } else {
-                ivWhiteAvatar.setText("");
-            }
+            AvatarGlyphCache.bind(ivBlackAvatar, blackPlayer);
+            AvatarGlyphCache.bind(ivWhiteAvatar, whitePlayer);
         } catch (Exception ignore) {
             // 忽略资源加载错误，不影响核心逻辑
         }
@@ -559,15 +599,12 @@ public class GobangActivity extends AppCompatActivity {
             btnRestart.setVisibility(Button.GONE);
         }
 
-        // 单机模式：如果现在轮到AI，则延迟执行AI落子
+        // 单机模式：如果现在轮到AI，则执行AI落子
         if (isSinglePlayer && !game.isGameOver()) {
             String current = game.getCurrentPlayer();
             java.util.List<String> players = game.getPlayers();
-            if (players.size() >= 2) {
-                String aiName = players.get(1);
-                if (aiName.equals(current)) {
-                    mainHandler.postDelayed(this::performAIMove, 500);
-                }
+            if (players.size() >= 2 && current != null && !current.equals(username)) {
+                mainHandler.post(this::performAIMove);
             }
         }
 
@@ -585,6 +622,8 @@ public class GobangActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        stopPondering();
+        aiExecutor.shutdownNow();
         // 清理游戏状态监听器
         if (gameId != null) {
             gameManager.removeGameStateListener(gameId);
@@ -2,6 +2,7 @@ package com.example.hakimichat.game;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -16,6 +17,11 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+/**
+ * 五子棋棋盘视图
+ * 背景、网格线、星位和坐标只在尺寸变化后画一次到棋盘层位图上，黑白棋子也预先画成两张小位图；
+ * 每次绘制只贴棋盘层和棋子。棋盘更新时只重绘有变化的交叉点（视图使用软件层，局部重绘有效）。
+ */
 public class GobangBoardView extends View {
 
     private static final int BOARD_SIZE = 15;
@@ -31,6 +37,12 @@ public class GobangBoardView extends View {
     private float pieceRadius;
     private float margin;
     private final Rect textBounds = new Rect();
+    private final Rect clipRect = new Rect();
+
+    // 静态棋盘层和棋子精灵，按当前尺寸绘制
+    private Bitmap boardLayer;
+    private Bitmap blackStone;
+    private Bitmap whiteStone;
     private final Point[] starPoints = {
             new Point(3, 3), new Point(11, 3),
             new Point(3, 11), new Point(11, 11),
@@ -38,7 +50,7 @@ public class GobangBoardView extends View {
     };
 
     // Game state
-    private int[][] board;
+    private final int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
     private Point lastMove;
     private OnBoardClickListener clickListener;
 
@@ -52,8 +64,6 @@ public class GobangBoardView extends View {
     }
 
     private void init() {
-        board = new int[BOARD_SIZE][BOARD_SIZE];
-
         gridPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         gridPaint.setColor(Color.parseColor("#A0000000"));
         gridPaint.setStrokeWidth(2);
@@ -62,6 +72,7 @@ public class GobangBoardView extends View {
         boardBackgroundPaint.setColor(Color.parseColor("#E3C16F"));
         boardBackgroundPaint.setStyle(Paint.Style.FILL);
         boardBackgroundPaint.setShadowLayer(12, 4, 4, Color.argb(100, 0, 0, 0));
+        // 软件层：阴影效果需要，同时使 invalidate 的局部区域生效
         setLayerType(View.LAYER_TYPE_SOFTWARE, boardBackgroundPaint);
 
         coordPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -85,10 +96,32 @@ public class GobangBoardView extends View {
         this.clickListener = listener;
     }
 
+    /**
+     * 更新棋盘：与当前棋盘逐格比较，只重绘变化的交叉点和新旧最后一手标记
+     */
     public void updateBoard(int[][] newBoard, Point lastMove) {
-        this.board = newBoard;
+        if (newBoard == null || newBoard.length != BOARD_SIZE) return;
+        // 保存一份副本，调用方复用同一数组时也能比较出变化
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (board[i][j] != newBoard[i][j]) {
+                    board[i][j] = newBoard[i][j];
+                    invalidatePoint(i, j);
+                }
+            }
+        }
+        if (this.lastMove != null) invalidatePoint(this.lastMove.x, this.lastMove.y);
+        if (lastMove != null) invalidatePoint(lastMove.x, lastMove.y);
         this.lastMove = lastMove;
-        invalidate();
+    }
+
+    private void invalidatePoint(int x, int y) {
+        if (gridSize <= 0) return;
+        float cx = margin + x * gridSize;
+        float cy = margin + y * gridSize;
+        // 多留出最后一手标记的描边宽度
+        int extent = (int) Math.ceil(pieceRadius) + 4;
+        invalidate((int) cx - extent, (int) cy - extent, (int) cx + extent, (int) cy + extent);
     }
 
     @Override
@@ -114,12 +147,63 @@ public class GobangBoardView extends View {
         RadialGradient whiteGradient = new RadialGradient(-pieceRadius * 0.3f, -pieceRadius * 0.3f, pieceRadius * 1.5f,
                 Color.WHITE, Color.parseColor("#CCCCCC"), Shader.TileMode.CLAMP);
         whitePiecePaint.setShader(whiteGradient);
+
+        releaseBitmaps();
+        buildBitmaps();
+    }
+
+    /**
+     * 按当前尺寸绘制棋盘层和黑白棋子精灵
+     */
+    private void buildBitmaps() {
+        int w = getWidth();
+        if (w <= 0 || gridSize <= 0) return;
+        try {
+            boardLayer = Bitmap.createBitmap(w, w, Bitmap.Config.ARGB_8888);
+            drawBoardAndCoords(new Canvas(boardLayer));
+            blackStone = createStoneSprite(blackPiecePaint);
+            whiteStone = createStoneSprite(whitePiecePaint);
+        } catch (OutOfMemoryError oom) {
+            // 位图分配失败时退回逐帧直接绘制
+            android.util.Log.w("GobangBoardView", "OOM creating board layer", oom);
+            releaseBitmaps();
+        }
+    }
+
+    private Bitmap createStoneSprite(Paint stonePaint) {
+        int size = (int) Math.ceil(pieceRadius * 2) + 2;
+        Bitmap sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas spriteCanvas = new Canvas(sprite);
+        spriteCanvas.translate(size / 2f, size / 2f);
+        spriteCanvas.drawCircle(0, 0, pieceRadius, stonePaint);
+        return sprite;
+    }
+
+    private void releaseBitmaps() {
+        for (Bitmap b : new Bitmap[]{boardLayer, blackStone, whiteStone}) {
+            if (b != null && !b.isRecycled()) b.recycle();
+        }
+        boardLayer = null;
+        blackStone = null;
+        whiteStone = null;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseBitmaps();
     }
 
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
-        drawBoardAndCoords(canvas);
+        // 从窗口分离时位图已回收，重新附加后再画一次
+        if (boardLayer == null) buildBitmaps();
+        if (boardLayer != null) {
+            canvas.drawBitmap(boardLayer, 0, 0, null);
+        } else {
+            drawBoardAndCoords(canvas);
+        }
         drawPieces(canvas);
         drawHighlight(canvas);
     }
@@ -155,13 +239,27 @@ public class GobangBoardView extends View {
     }
 
     private void drawPieces(Canvas canvas) {
-        if (board == null) return;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
+        if (gridSize <= 0) return;
+        // 只画与重绘区域相交的交叉点上的棋子
+        int minX = 0, maxX = BOARD_SIZE - 1, minY = 0, maxY = BOARD_SIZE - 1;
+        if (canvas.getClipBounds(clipRect)) {
+            minX = Math.max(0, (int) Math.floor((clipRect.left - margin - pieceRadius) / gridSize));
+            maxX = Math.min(BOARD_SIZE - 1, (int) Math.ceil((clipRect.right - margin + pieceRadius) / gridSize));
+            minY = Math.max(0, (int) Math.floor((clipRect.top - margin - pieceRadius) / gridSize));
+            maxY = Math.min(BOARD_SIZE - 1, (int) Math.ceil((clipRect.bottom - margin + pieceRadius) / gridSize));
+        }
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = minY; j <= maxY; j++) {
                 if (board[i][j] != 0) {
                     float cx = margin + i * gridSize;
                     float cy = margin + j * gridSize;
 
+                    Bitmap sprite = (board[i][j] == 1) ? blackStone : whiteStone;
+                    if (sprite != null) {
+                        canvas.drawBitmap(sprite, cx - sprite.getWidth() / 2f, cy - sprite.getHeight() / 2f, null);
+                        continue;
+                    }
+
                     canvas.save();
                     canvas.translate(cx, cy);
 
@@ -0,0 +1,640 @@
+package com.example.hakimichat.game;
+
+import java.util.Arrays;
+
+/**
+ * 五子棋AI搜索引擎
+ * 在棋盘副本上执行迭代加深的 alpha-beta 搜索，时间与节点预算由 GobangSearchController 控制。
+ * 落子用 x * BOARD_SIZE + y 编码为 int，-1 表示无可走位置。
+ */
+public class GobangEngine {
+
+    private static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+    private static final int EMPTY = GobangGame.EMPTY;
+    private static final int BLACK_PIECE = GobangGame.BLACK_PIECE;
+    private static final int WHITE_PIECE = GobangGame.WHITE_PIECE;
+    private static final int CENTER = BOARD_SIZE / 2;
+
+    static final int WIN_SCORE = 1000000;
+
+    // 棋型分数的下标：连五、活四、冲四、活三、眠三、活二
+    public static final int WEIGHT_FIVE = 0;
+    public static final int WEIGHT_LIVE_FOUR = 1;
+    public static final int WEIGHT_DEAD_FOUR = 2;
+    public static final int WEIGHT_LIVE_THREE = 3;
+    public static final int WEIGHT_DEAD_THREE = 4;
+    public static final int WEIGHT_LIVE_TWO = 5;
+    private static final int[] DEFAULT_LINE_WEIGHTS = {500000, 50000, 500, 200, 10, 5};
+
+    // 棋型（用于杀棋判断）
+    private static final int LINE_NONE = 0;
+    private static final int LINE_LIVE_THREE = 1;
+    private static final int LINE_FOUR = 2;
+
+    // 置换表条目类型
+    static final int TT_EXACT = 0;
+    static final int TT_LOWER = 1;
+    static final int TT_UPPER = 2;
+
+    // 置换表大小（2^18 项，约 3.5MB），跨多次搜索保留，供后台思考复用
+    private static final int TT_BITS = 18;
+    private static final int TT_SIZE = 1 << TT_BITS;
+    private static final int TT_MASK = TT_SIZE - 1;
+    private static final int TT_NO_MOVE = 0xFF;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    private static final int[][] POSITIONAL_VALUE = {
+            {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0},
+            {0, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 0},
+            {0, 1, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 4, 4, 4, 4, 4, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 5, 5, 5, 5, 5, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 5, 6, 6, 6, 5, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 5, 6, 7, 6, 5, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 5, 6, 6, 6, 5, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 5, 5, 5, 5, 5, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 4, 4, 4, 4, 4, 4, 4, 3, 2, 1, 0},
+            {0, 1, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2, 1, 0},
+            {0, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 0},
+            {0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    private final int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
+    private final boolean[][][] visited = new boolean[BOARD_SIZE][BOARD_SIZE][4];
+    private int moveCount;
+    private int aiColor = WHITE_PIECE;
+    private int humanColor = BLACK_PIECE;
+    private boolean strictMode;
+    // 严格模式下黑方不能走禁手，只在严格模式下维护
+    private final GobangRenju renju = new GobangRenju();
+
+    private long zobristKey;
+
+    // 置换表：key 为局面哈希，meta 低 8 位为最佳着法，8-9 位为条目类型，10 位以上为深度 + 1（有效条目 meta 不为 0）
+    private final long[] ttKeys = new long[TT_SIZE];
+    private final int[] ttScores = new int[TT_SIZE];
+    private final int[] ttMeta = new int[TT_SIZE];
+
+    private final int[] lineWeights = DEFAULT_LINE_WEIGHTS.clone();
+
+    private GobangSearchController controller;
+    private int lastCompletedDepth;
+
+    /**
+     * 载入要搜索的局面（复制棋盘，不会修改传入的数组）
+     * @param source 当前棋盘
+     * @param aiColor AI执子颜色，AI即为下一步的行棋方
+     * @param strictMode 是否严格模式（黑方长连不算胜）
+     */
+    public void setPosition(int[][] source, int aiColor, boolean strictMode) {
+        // 评估分数以AI视角计算，执子颜色或规则变化后旧的置换表条目不再可用
+        if (aiColor != this.aiColor || strictMode != this.strictMode) clearTranspositionTable();
+        this.aiColor = aiColor;
+        this.humanColor = opponent(aiColor);
+        this.strictMode = strictMode;
+        moveCount = 0;
+        zobristKey = 0;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                board[i][j] = source[i][j];
+                if (board[i][j] != EMPTY) {
+                    moveCount++;
+                    zobristKey ^= GobangZobrist.key(i, j, board[i][j]);
+                }
+            }
+        }
+        if (strictMode) renju.load(board);
+    }
+
+    /**
+     * 为AI寻找最佳落子
+     * @return 编码后的落子，-1 表示棋盘已满
+     */
+    public int findBestMove(GobangSearchController controller) {
+        this.controller = controller;
+        controller.start();
+        lastCompletedDepth = 0;
+
+        // 1. 能直接连五则直接获胜
+        int move = findWinningMove(aiColor);
+        if (move >= 0) return move;
+
+        // 2. 堵住对手的连五
+        move = findWinningMove(humanColor);
+        if (move >= 0) return move;
+
+        // 3. 己方杀棋（双活三/冲四活三）
+        move = findKillMove(aiColor);
+        if (move >= 0) return move;
+
+        // 4. 破坏对手的杀棋
+        move = findKillMove(humanColor);
+        if (move >= 0) return move;
+
+        // 5. 开局
+        if (moveCount <= 1) {
+            move = findOpeningMove();
+            if (move >= 0) return move;
+        }
+
+        // 6. 迭代加深搜索
+        return findBestMoveByIterativeDeepening();
+    }
+
+    /**
+     * 后台思考：在对手思考期间，按可能性依次假设对手的应对并搜索AI的回应，
+     * 结果保存在置换表中，对手真正落子后的搜索可以直接命中。
+     * 调用前局面应为轮到对手落子，直到 controller 被停止或所有候选应对都搜索完毕才返回。
+     * @return 预测的对手落子，-1 表示无可预测
+     */
+    public int ponder(GobangSearchController controller) {
+        this.controller = controller;
+        controller.start();
+
+        int[] replies = generateMoves(humanColor);
+        if (replies.length == 0) return -1;
+        // 上一次搜索的主变例中记录的对手应对最有可能出现，优先思考
+        int predicted = probeBestMove();
+        if (predicted < 0) predicted = replies[0];
+        moveToFront(replies, predicted);
+
+        for (int reply : replies) {
+            if (!controller.canStartIteration()) break;
+            int x = reply / BOARD_SIZE, y = reply % BOARD_SIZE;
+            place(x, y, humanColor);
+            if (!isFive(x, y, humanColor)) {
+                lastCompletedDepth = 0;
+                findBestMoveByIterativeDeepening();
+            }
+            remove(x, y);
+        }
+        return predicted;
+    }
+
+    /**
+     * 设置评估函数的棋型分数（下标见 WEIGHT_*），用于调参和自我对弈比较
+     */
+    public void setLineWeights(int[] weights) {
+        System.arraycopy(weights, 0, lineWeights, 0, lineWeights.length);
+        clearTranspositionTable();
+    }
+
+    /**
+     * 获取默认棋型分数的副本
+     */
+    public static int[] getDefaultLineWeights() {
+        return DEFAULT_LINE_WEIGHTS.clone();
+    }
+
+    /**
+     * 清空置换表（新对局或规则变化时调用）
+     */
+    public void clearTranspositionTable() {
+        Arrays.fill(ttKeys, 0L);
+        Arrays.fill(ttMeta, 0);
+    }
+
+    /**
+     * 最近一次搜索完整完成的深度
+     */
+    public int getLastCompletedDepth() {
+        return lastCompletedDepth;
+    }
+
+    private int findBestMoveByIterativeDeepening() {
+        int bestMove = -1;
+        for (int depth = 1; depth <= controller.getMaxDepth(); depth++) {
+            if (depth > 1 && !controller.canStartIteration()) break;
+            RootResult result = searchRoot(depth, bestMove);
+            if (controller.isAborted()) {
+                // 上一轮最佳着法总是最先搜索，只要本轮至少完成了一个着法，
+                // 本轮已得出的最佳着法就不劣于上一轮结果，不必丢弃
+                if (result.completedMoves > 0 && result.bestMove >= 0) bestMove = result.bestMove;
+                break;
+            }
+            bestMove = result.bestMove;
+            lastCompletedDepth = depth;
+            if (Math.abs(result.bestScore) >= WIN_SCORE) break;
+        }
+        if (bestMove < 0) bestMove = firstEmptyCell();
+        return bestMove;
+    }
+
+    private RootResult searchRoot(int depth, int previousBest) {
+        RootResult result = new RootResult();
+        int[] moves = generateMoves(aiColor);
+        if (moves.length == 0) return result;
+        moveToFront(moves, previousBest);
+
+        int alpha = Integer.MIN_VALUE;
+        for (int move : moves) {
+            int x = move / BOARD_SIZE, y = move % BOARD_SIZE;
+            place(x, y, aiColor);
+            int score;
+            if (isFive(x, y, aiColor)) {
+                score = WIN_SCORE + depth;
+            } else {
+                score = minimax(depth - 1, alpha, Integer.MAX_VALUE, false, humanColor);
+            }
+            remove(x, y);
+            if (controller.isAborted()) break;
+
+            result.completedMoves++;
+            if (result.bestMove < 0 || score > result.bestScore) {
+                result.bestScore = score;
+                result.bestMove = move;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        return result;
+    }
+
+    private int minimax(int depth, int alpha, int beta, boolean isMaximizingPlayer, int currentTurnColor) {
+        if (controller.tick()) return 0;
+
+        int alphaOrig = alpha, betaOrig = beta;
+        int slot = (int) zobristKey & TT_MASK;
+        int ttMove = -1;
+        boolean ttHit = ttKeys[slot] == zobristKey && ttMeta[slot] != 0;
+        controller.recordTtProbe(ttHit);
+        if (ttHit) {
+            int meta = ttMeta[slot];
+            int score = ttScores[slot];
+            if (ttDepth(meta) >= depth) {
+                int flag = (meta >>> 8) & 3;
+                if (flag == TT_EXACT) return score;
+                if (flag == TT_LOWER) alpha = Math.max(alpha, score);
+                else beta = Math.min(beta, score);
+                if (alpha >= beta) return score;
+            }
+            if ((meta & 0xFF) != TT_NO_MOVE) ttMove = meta & 0xFF;
+        }
+
+        if (depth == 0) return evaluateBoard();
+
+        int[] moves = generateMoves(currentTurnColor);
+        if (moves.length == 0) return evaluateBoard();
+        moveToFront(moves, ttMove);
+
+        int nextTurnColor = opponent(currentTurnColor);
+        int best = isMaximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = -1;
+        for (int move : moves) {
+            int x = move / BOARD_SIZE, y = move % BOARD_SIZE;
+            place(x, y, currentTurnColor);
+            int eval;
+            if (isFive(x, y, currentTurnColor)) {
+                eval = winScore(currentTurnColor, depth);
+            } else {
+                eval = minimax(depth - 1, alpha, beta, !isMaximizingPlayer, nextTurnColor);
+            }
+            remove(x, y);
+            // 中止后的分数不可信，直接返回且不写入置换表
+            if (controller.isAborted()) return 0;
+
+            if (isMaximizingPlayer ? eval > best : eval < best) {
+                best = eval;
+                bestMove = move;
+            }
+            if (isMaximizingPlayer) alpha = Math.max(alpha, eval);
+            else beta = Math.min(beta, eval);
+            if (beta <= alpha) break;
+        }
+
+        int flag = TT_EXACT;
+        if (best <= alphaOrig) flag = TT_UPPER;
+        else if (best >= betaOrig) flag = TT_LOWER;
+        storeTransposition(best, depth, flag, bestMove);
+        return best;
+    }
+
+    private static int ttDepth(int meta) {
+        return (meta >>> 10) - 1;
+    }
+
+    /**
+     * 写入当前局面的置换表条目：同一局面已有更深的结果时保留原条目，不同局面直接替换
+     */
+    void storeTransposition(int score, int depth, int flag, int bestMove) {
+        int slot = (int) zobristKey & TT_MASK;
+        if (ttKeys[slot] == zobristKey && ttMeta[slot] != 0 && ttDepth(ttMeta[slot]) > depth) return;
+        ttKeys[slot] = zobristKey;
+        ttScores[slot] = score;
+        ttMeta[slot] = ((depth + 1) << 10) | (flag << 8) | (bestMove < 0 ? TT_NO_MOVE : bestMove);
+    }
+
+    /**
+     * 当前局面置换表条目的搜索深度，没有条目时返回 -1；minimax 只采用深度不小于剩余深度的条目
+     */
+    int probeTranspositionDepth() {
+        int slot = (int) zobristKey & TT_MASK;
+        if (ttKeys[slot] != zobristKey || ttMeta[slot] == 0) return -1;
+        return ttDepth(ttMeta[slot]);
+    }
+
+    /**
+     * 当前局面置换表条目的分数（调用前应先用 probeTranspositionDepth 确认条目存在）
+     */
+    int probeTranspositionScore() {
+        return ttScores[(int) zobristKey & TT_MASK];
+    }
+
+    private int probeBestMove() {
+        int slot = (int) zobristKey & TT_MASK;
+        if (ttKeys[slot] != zobristKey || ttMeta[slot] == 0) return -1;
+        int move = ttMeta[slot] & 0xFF;
+        if (move == TT_NO_MOVE || board[move / BOARD_SIZE][move % BOARD_SIZE] != EMPTY) return -1;
+        return move;
+    }
+
+    // 越早获胜分数越高，越晚失败分数越高
+    private int winScore(int winner, int depth) {
+        return winner == aiColor ? WIN_SCORE + depth : -WIN_SCORE - depth;
+    }
+
+    private void place(int x, int y, int pieceType) {
+        board[x][y] = pieceType;
+        zobristKey ^= GobangZobrist.key(x, y, pieceType);
+        moveCount++;
+        if (strictMode) renju.place(x, y, pieceType);
+    }
+
+    private void remove(int x, int y) {
+        zobristKey ^= GobangZobrist.key(x, y, board[x][y]);
+        board[x][y] = EMPTY;
+        moveCount--;
+        if (strictMode) renju.remove(x, y);
+    }
+
+    private int opponent(int pieceType) {
+        return pieceType == BLACK_PIECE ? WHITE_PIECE : BLACK_PIECE;
+    }
+
+    private boolean isValid(int x, int y) {
+        return x >= 0 && x < BOARD_SIZE && y >= 0 && y < BOARD_SIZE;
+    }
+
+    /**
+     * 判断 (x, y) 处的棋子是否形成连五（严格模式下黑方必须恰好五子）
+     */
+    boolean isFive(int x, int y, int pieceType) {
+        boolean exact = strictMode && pieceType == BLACK_PIECE;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1;
+            for (int i = 1; i < 6; i++) {
+                int nx = x + i * dir[0], ny = y + i * dir[1];
+                if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
+                else break;
+            }
+            for (int i = 1; i < 6; i++) {
+                int nx = x - i * dir[0], ny = y - i * dir[1];
+                if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
+                else break;
+            }
+            if (exact ? count == 5 : count >= 5) return true;
+        }
+        return false;
+    }
+
+    // 包级可见，供单元测试中的基准测试调用
+    int evaluateBoard() {
+        return calculateTotalScore(aiColor) - calculateTotalScore(humanColor);
+    }
+
+    private int calculateTotalScore(int pieceType) {
+        int totalScore = 0;
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (board[i][j] == pieceType) totalScore += POSITIONAL_VALUE[i][j];
+            }
+        totalScore += calculateLineScore(pieceType);
+        return totalScore;
+    }
+
+    private int calculateLineScore(int pieceType) {
+        int score = 0;
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                for (int d = 0; d < 4; d++) visited[i][j][d] = false;
+
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (board[i][j] != pieceType) continue;
+                for (int d = 0; d < 4; d++) {
+                    if (visited[i][j][d]) continue;
+                    int line = countLineOnBoard(i, j, DIRECTIONS[d], pieceType);
+                    int count = line >> 2;
+                    score += getScoreFromLine(count, line & 3);
+                    for (int k = 0; k < count; k++) {
+                        int ni = i + k * DIRECTIONS[d][0], nj = j + k * DIRECTIONS[d][1];
+                        if (isValid(ni, nj)) visited[ni][nj][d] = true;
+                    }
+                }
+            }
+        return score;
+    }
+
+    // 返回 (连子数 << 2) | 活口数
+    private int countLineOnBoard(int x, int y, int[] dir, int pieceType) {
+        int count = 1;
+        int openEnds = 0;
+        int opponentType = opponent(pieceType);
+        for (int i = 1; i < 5; i++) {
+            int curX = x + i * dir[0], curY = y + i * dir[1];
+            if (!isValid(curX, curY) || board[curX][curY] == opponentType) break;
+            if (board[curX][curY] == pieceType) count++;
+            else {
+                openEnds++;
+                break;
+            }
+        }
+        for (int i = 1; i < 5; i++) {
+            int curX = x - i * dir[0], curY = y - i * dir[1];
+            if (!isValid(curX, curY) || board[curX][curY] == opponentType) break;
+            if (board[curX][curY] == pieceType) count++;
+            else {
+                openEnds++;
+                break;
+            }
+        }
+        return (count << 2) | openEnds;
+    }
+
+    private int getScoreFromLine(int count, int openEnds) {
+        if (count >= 5) return lineWeights[WEIGHT_FIVE];
+        if (count == 4) return (openEnds == 2) ? lineWeights[WEIGHT_LIVE_FOUR] : lineWeights[WEIGHT_DEAD_FOUR];
+        if (count == 3) return (openEnds == 2) ? lineWeights[WEIGHT_LIVE_THREE] : lineWeights[WEIGHT_DEAD_THREE];
+        if (count == 2) return (openEnds == 2) ? lineWeights[WEIGHT_LIVE_TWO] : 0;
+        return 0;
+    }
+
+    /**
+     * 生成候选落子（只考虑已有棋子周围的空位），按对双方的棋型价值降序排列
+     * 严格模式下轮到黑方时排除禁手
+     */
+    int[] generateMoves(int sideToMove) {
+        boolean checkForbidden = strictMode && sideToMove == BLACK_PIECE;
+        int[] moves = new int[BOARD_SIZE * BOARD_SIZE];
+        int[] scores = new int[BOARD_SIZE * BOARD_SIZE];
+        int n = 0;
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (board[i][j] != EMPTY || !hasNeighbor(i, j)) continue;
+                if (checkForbidden && renju.isForbidden(i, j)) continue;
+                int score = scoreSingleLine(i, j, aiColor) + scoreSingleLine(i, j, humanColor);
+                // 插入排序，保持降序
+                int k = n++;
+                while (k > 0 && scores[k - 1] < score) {
+                    moves[k] = moves[k - 1];
+                    scores[k] = scores[k - 1];
+                    k--;
+                }
+                moves[k] = i * BOARD_SIZE + j;
+                scores[k] = score;
+            }
+        if (n == 0 && moveCount < 2) {
+            return new int[]{board[CENTER][CENTER] == EMPTY
+                    ? CENTER * BOARD_SIZE + CENTER
+                    : (CENTER - 1) * BOARD_SIZE + (CENTER - 1)};
+        }
+        int[] result = new int[n];
+        System.arraycopy(moves, 0, result, 0, n);
+        return result;
+    }
+
+    private void moveToFront(int[] moves, int move) {
+        if (move < 0) return;
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    private int scoreSingleLine(int x, int y, int pieceType) {
+        int score = 0;
+        for (int[] dir : DIRECTIONS) {
+            int line = countLine(x, y, dir, pieceType);
+            score += getScoreFromLine(line >> 2, line & 3);
+        }
+        return score;
+    }
+
+    // 假设在空位 (x, y) 落下 pieceType，返回 (连子数 << 2) | 活口数
+    private int countLine(int x, int y, int[] dir, int pieceType) {
+        int count = 0, openEnds = 0;
+        int opponentType = opponent(pieceType);
+        for (int i = 1; i < 5; i++) {
+            int curX = x - i * dir[0], curY = y - i * dir[1];
+            if (!isValid(curX, curY) || board[curX][curY] == opponentType) {
+                openEnds = 0;
+                break;
+            }
+            if (board[curX][curY] == pieceType) count++;
+            else {
+                openEnds++;
+                break;
+            }
+        }
+        for (int i = 1; i < 5; i++) {
+            int curX = x + i * dir[0], curY = y + i * dir[1];
+            if (!isValid(curX, curY) || board[curX][curY] == opponentType) break;
+            if (board[curX][curY] == pieceType) count++;
+            else {
+                openEnds++;
+                break;
+            }
+        }
+        return ((count + 1) << 2) | openEnds;
+    }
+
+    private int getLineType(int x, int y, int dx, int dy, int pieceType) {
+        int count = 1, openEnds = 0;
+        for (int i = 1; i < 6; i++) {
+            int nx = x + i * dx, ny = y + i * dy;
+            if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
+            else {
+                if (isValid(nx, ny) && board[nx][ny] == EMPTY) openEnds++;
+                break;
+            }
+        }
+        for (int i = 1; i < 6; i++) {
+            int nx = x - i * dx, ny = y - i * dy;
+            if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
+            else {
+                if (isValid(nx, ny) && board[nx][ny] == EMPTY) openEnds++;
+                break;
+            }
+        }
+        if (count == 3 && openEnds == 2) return LINE_LIVE_THREE;
+        if (count == 4 && openEnds >= 1) return LINE_FOUR;
+        return LINE_NONE;
+    }
+
+    private int findKillMove(int pieceType) {
+        for (int move : generateMoves(pieceType)) {
+            int x = move / BOARD_SIZE, y = move % BOARD_SIZE;
+            board[x][y] = pieceType;
+            int liveThrees = 0, fours = 0;
+            for (int[] dir : DIRECTIONS) {
+                int lineType = getLineType(x, y, dir[0], dir[1], pieceType);
+                if (lineType == LINE_LIVE_THREE) liveThrees++;
+                else if (lineType == LINE_FOUR) fours++;
+            }
+            board[x][y] = EMPTY;
+            if (fours >= 1 && liveThrees >= 1) return move;
+            if (liveThrees >= 2) return move;
+        }
+        return -1;
+    }
+
+    private int findWinningMove(int pieceType) {
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (board[i][j] != EMPTY || !hasNeighbor(i, j)) continue;
+                board[i][j] = pieceType;
+                boolean win = isFive(i, j, pieceType);
+                board[i][j] = EMPTY;
+                if (win) return i * BOARD_SIZE + j;
+            }
+        return -1;
+    }
+
+    private int findOpeningMove() {
+        if (board[CENTER][CENTER] == EMPTY) return CENTER * BOARD_SIZE + CENTER;
+        int[] offsets = {0, 1, -1};
+        for (int dx : offsets)
+            for (int dy : offsets)
+                if (dx != 0 || dy != 0)
+                    if (isValid(CENTER + dx, CENTER + dy) && board[CENTER + dx][CENTER + dy] == EMPTY)
+                        return (CENTER + dx) * BOARD_SIZE + (CENTER + dy);
+        return -1;
+    }
+
+    private int firstEmptyCell() {
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                if (board[i][j] == EMPTY) return i * BOARD_SIZE + j;
+        return -1;
+    }
+
+    private boolean hasNeighbor(int x, int y) {
+        for (int i = -1; i <= 1; i++)
+            for (int j = -1; j <= 1; j++) {
+                if (i == 0 && j == 0) continue;
+                if (isValid(x + i, y + j) && board[x + i][y + j] != EMPTY) return true;
+            }
+        return false;
+    }
+
+    private static class RootResult {
+        int bestMove = -1;
+        int bestScore = Integer.MIN_VALUE;
+        int completedMoves;
+    }
+}
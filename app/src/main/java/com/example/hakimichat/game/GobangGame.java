@@ -8,10 +8,6 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Stack;
 
@@ -22,8 +18,6 @@ public class GobangGame extends BaseGame {
     public static final int BLACK_PIECE = 1;
     public static final int WHITE_PIECE = 2;
     private static final String GAME_TYPE = "Gobang";
-    private static final int MAX_SEARCH_DEPTH = 4;
-    private static final long TIME_LIMIT_MS = 2500;
 
     private int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
     private int moveCount = 0;
@@ -39,45 +33,21 @@ public class GobangGame extends BaseGame {
     private String humanPlayerName = null;  // 记录真人玩家名字
 
     private final Stack<Point> moveHistory = new Stack<>();
+    // 严格模式禁手判断，与棋盘同步增量更新
+    private final GobangRenju renju = new GobangRenju();
+    // 棋盘的 Zobrist 哈希，与棋盘同步增量更新
+    private long stateHash = 0;
 
     // AI相关
-    private static final int[][] POSITIONAL_VALUE = {
-            {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
-            {0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0},
-            {0, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 0},
-            {0, 1, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 4, 4, 4, 4, 4, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 5, 5, 5, 5, 5, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 5, 6, 6, 6, 5, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 5, 6, 7, 6, 5, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 5, 6, 6, 6, 5, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 5, 5, 5, 5, 5, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 4, 4, 4, 4, 4, 4, 4, 3, 2, 1, 0},
-            {0, 1, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2, 1, 0},
-            {0, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 0},
-            {0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0},
-            {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}
-    };
-    private final long[][][] zobristTable = new long[BOARD_SIZE][BOARD_SIZE][3];
-    private long currentZobristKey = 0;
-    private final Map<Long, TranspositionEntry> transpositionTable = new HashMap<>();
-    private long startTime;
+    private final GobangEngine engine = new GobangEngine();
+    private GobangOpeningBook openingBook;
+    private int difficulty = GobangSearchController.DIFFICULTY_NORMAL;
 
     public GobangGame() {
         super();
-        initZobrist();
         initGame();
     }
 
-    private void initZobrist() {
-        Random rand = new Random();
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++)
-                for (int k = 1; k <= 2; k++) {
-                    zobristTable[i][j][k] = rand.nextLong();
-                }
-    }
-
     @Override
     public void initGame() {
         for (int i = 0; i < BOARD_SIZE; i++) {
@@ -90,6 +60,8 @@ public class GobangGame extends BaseGame {
         isGameOver = false;
         gameResult = null;
         moveHistory.clear();
+        renju.clear();
+        stateHash = 0;
         // Player assignments are handled by addPlayer
     }
 
@@ -192,6 +164,17 @@ public class GobangGame extends BaseGame {
         this.isStrictMode = isStrict;
     }
 
+    /**
+     * 设置AI难度（GobangSearchController.DIFFICULTY_*）
+     */
+    public void setDifficulty(int difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
     @Override
     public boolean processMove(String player, JSONObject moveData) {
         if (isGameOver || !isGameStarted || !player.equals(currentPlayer)) {
@@ -209,7 +192,7 @@ public class GobangGame extends BaseGame {
             // Strict mode rules for black player
             if (isStrictMode && turnColor == BLACK_PIECE) {
                 if (moveCount == 0 && (x != BOARD_SIZE / 2 || y != BOARD_SIZE / 2)) return false;
-                if (isForbiddenMoveForBlack(x, y)) return false;
+                if (renju.isForbidden(x, y)) return false;
             }
 
             updateBoardState(x, y, turnColor);
@@ -226,16 +209,16 @@ public class GobangGame extends BaseGame {
     }
     
     private void updateBoardState(int x, int y, int pieceType, boolean updateHistory) {
-        int originalPiece = board[x][y];
-        if (originalPiece != EMPTY) currentZobristKey ^= zobristTable[x][y][originalPiece];
-        if (pieceType != EMPTY) currentZobristKey ^= zobristTable[x][y][pieceType];
+        stateHash ^= GobangZobrist.key(x, y, board[x][y]) ^ GobangZobrist.key(x, y, pieceType);
         board[x][y] = pieceType;
         if (pieceType != EMPTY) {
+            renju.place(x, y, pieceType);
             moveCount++;
             if (updateHistory) {
                 moveHistory.push(new Point(x, y));
             }
         } else {
+            renju.remove(x, y);
             moveCount--;
         }
     }
@@ -336,70 +319,6 @@ public class GobangGame extends BaseGame {
         return maxCount;
     }
 
-    private boolean isForbiddenMoveForBlack(int x, int y) {
-        if (isWinningMoveForBlack(x, y)) return false;
-        if (checkLineCountForBlack(x, y) > 5) return true;
-        int liveThrees = 0, fours = 0;
-        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
-        board[x][y] = BLACK_PIECE;
-        for (int[] dir : directions) {
-            String lineType = getLineType(x, y, dir[0], dir[1], BLACK_PIECE);
-            if (lineType.equals("LIVE_THREE")) liveThrees++;
-            if (lineType.equals("FOUR")) fours++;
-        }
-        board[x][y] = EMPTY;
-        return liveThrees >= 2 || fours >= 2;
-    }
-
-    private boolean isWinningMoveForBlack(int x, int y) {
-        return checkLineCountForBlack(x, y) >= 5;
-    }
-
-    private int checkLineCountForBlack(int x, int y) {
-        int maxCount = 0;
-        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
-        board[x][y] = BLACK_PIECE;
-        for (int[] dir : directions) {
-            int count = 1;
-            for (int i = 1; i < 6; i++) {
-                if (isValid(x + i * dir[0], y + i * dir[1]) && board[x + i * dir[0]][y + i * dir[1]] == BLACK_PIECE)
-                    count++;
-                else break;
-            }
-            for (int i = 1; i < 6; i++) {
-                if (isValid(x - i * dir[0], y - i * dir[1]) && board[x - i * dir[0]][y - i * dir[1]] == BLACK_PIECE)
-                    count++;
-                else break;
-            }
-            if (count > maxCount) maxCount = count;
-        }
-        board[x][y] = EMPTY;
-        return maxCount;
-    }
-
-    private String getLineType(int x, int y, int dx, int dy, int pieceType) {
-        int count = 1, openEnds = 0;
-        for (int i = 1; i < 6; i++) {
-            int nx = x + i * dx, ny = y + i * dy;
-            if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
-            else {
-                if (isValid(nx, ny) && board[nx][ny] == EMPTY) openEnds++;
-                break;
-            }
-        }
-        for (int i = 1; i < 6; i++) {
-            int nx = x - i * dx, ny = y - i * dy;
-            if (isValid(nx, ny) && board[nx][ny] == pieceType) count++;
-            else {
-                if (isValid(nx, ny) && board[nx][ny] == EMPTY) openEnds++;
-                break;
-            }
-        }
-        if (count == 3 && openEnds == 2) return "LIVE_THREE";
-        if (count == 4 && (openEnds == 1 || openEnds == 2)) return "FOUR";
-        return "";
-    }
-
     private boolean isValid(int x, int y) {
         return x >= 0 && x < BOARD_SIZE && y >= 0 && y < BOARD_SIZE;
     }
@@ -423,6 +342,7 @@ public class GobangGame extends BaseGame {
             state.put("isAiEnabled", isAiEnabled);
             state.put("humanPlayerName", humanPlayerName);
             state.put("humanPlayerColor", humanPlayerColor);
+            state.put("difficulty", difficulty);
 
             JSONArray boardArray = new JSONArray();
             for (int i = 0; i < BOARD_SIZE; i++) {
@@ -433,6 +353,7 @@ public class GobangGame extends BaseGame {
                 boardArray.put(row);
             }
             state.put("board", boardArray);
+            state.put("stateHash", stateHash);
         } catch (JSONException e) {
             e.printStackTrace();
         }
@@ -454,6 +375,7 @@ public class GobangGame extends BaseGame {
             this.isAiEnabled = gameState.optBoolean("isAiEnabled", false);
             this.humanPlayerName = gameState.optString("humanPlayerName", null);
             this.humanPlayerColor = gameState.optInt("humanPlayerColor", BLACK_PIECE);
+            this.difficulty = gameState.optInt("difficulty", GobangSearchController.DIFFICULTY_NORMAL);
 
             playersFromJson(gameState.getJSONArray("players"));
             spectatorsFromJson(gameState.getJSONArray("spectators"));
@@ -465,6 +387,11 @@ public class GobangGame extends BaseGame {
                     this.board[i][j] = row.getInt(j);
                 }
             }
+            renju.load(board);
+            stateHash = GobangZobrist.hash(board);
+            if (gameState.has("stateHash") && gameState.getLong("stateHash") != stateHash) {
+                android.util.Log.w("GobangGame", "棋盘哈希不一致，本地棋盘与发送方不同步: " + gameId);
+            }
 
             // Recalculate turn color based on move count
             this.turnColor = (this.moveCount % 2 == 0) ? BLACK_PIECE : WHITE_PIECE;
@@ -477,321 +404,74 @@ public class GobangGame extends BaseGame {
     // Complete AI for single player mode
     public Point getAiMove() {
         if (isGameOver) return null;
-        startTime = System.currentTimeMillis();
-        transpositionTable.clear();
-
-        int aiColor = (humanPlayerColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-
-        // 1. Find kill move (double threats)
-        Point killMove = findKillMove(aiColor);
-        if (killMove != null) return killMove;
-
-        // 2. Block opponent's kill move
-        Point urgentDefense = findKillMove(humanPlayerColor);
-        if (urgentDefense != null) return urgentDefense;
-
-        // 3. Find winning move
-        Point winningMove = findWinningMove(aiColor);
-        if (winningMove != null) return winningMove;
-
-        // 4. Block opponent's winning move
-        Point defensiveMove = findWinningMove(humanPlayerColor);
-        if (defensiveMove != null) return defensiveMove;
-
-        // 5. Opening moves
-        if (moveCount <= 1) {
-            if (board[7][7] == EMPTY) return new Point(7, 7);
-            int[] offsets = {0, 1, -1};
-            for (int dx : offsets)
-                for (int dy : offsets)
-                    if (dx != 0 || dy != 0)
-                        if (isValid(7 + dx, 7 + dy) && board[7 + dx][7 + dy] == EMPTY)
-                            return new Point(7 + dx, 7 + dy);
-        }
-
-        // 6. Iterative deepening search
-        return findBestMoveByIterativeDeepening();
-    }
-
-    private Point findBestMoveByIterativeDeepening() {
-        Point bestMove = null;
-        for (int depth = 1; depth <= MAX_SEARCH_DEPTH; depth++) {
-            Point currentBestMove = findBestMoveAtDepth(depth);
-            if (System.currentTimeMillis() - startTime > TIME_LIMIT_MS) {
-                return bestMove != null ? bestMove : currentBestMove;
-            }
-            bestMove = currentBestMove;
-        }
-        return bestMove;
-    }
-
-    private Point findBestMoveAtDepth(int depth) {
-        Point bestMove = null;
-        int bestScore = Integer.MIN_VALUE;
-        List<Point> moves = generateMoves();
-        if (moves.isEmpty()) {
-            for (int i = 0; i < BOARD_SIZE; i++)
-                for (int j = 0; j < BOARD_SIZE; j++)
-                    if (board[i][j] == EMPTY) return new Point(i, j);
-        }
-        for (Point move : moves) {
-            updateBoardState(move.x, move.y, turnColor, false);  // AI搜索不更新history
-            int score = minimax(depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, false,
-                    (turnColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE);
-            updateBoardState(move.x, move.y, EMPTY, false);  // AI搜索不更新history
-            if (score > bestScore) {
-                bestScore = score;
-                bestMove = move;
-            }
-        }
-        return bestMove;
-    }
-
-    private int minimax(int depth, int alpha, int beta, boolean isMaximizingPlayer, int currentTurnColor) {
-        if (System.currentTimeMillis() - startTime > TIME_LIMIT_MS) return 0;
-        TranspositionEntry entry = transpositionTable.get(currentZobristKey);
-        if (entry != null && entry.depth >= depth) return entry.score;
-
-        int immediateWinner = getImmediateWinner();
-        if (immediateWinner != EMPTY) return evaluate(immediateWinner);
-        if (depth == 0) return evaluateBoard();
-
-        List<Point> moves = generateMoves();
-        if (moves.isEmpty()) return evaluateBoard();
-
-        int nextTurnColor = (currentTurnColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-        if (isMaximizingPlayer) {
-            int maxEval = Integer.MIN_VALUE;
-            for (Point move : moves) {
-                updateBoardState(move.x, move.y, currentTurnColor, false);  // AI搜索不更新history
-                int eval = minimax(depth - 1, alpha, beta, false, nextTurnColor);
-                updateBoardState(move.x, move.y, EMPTY, false);  // AI搜索不更新history
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break;
-            }
-            transpositionTable.put(currentZobristKey, new TranspositionEntry(maxEval, depth));
-            return maxEval;
-        } else {
-            int minEval = Integer.MAX_VALUE;
-            for (Point move : moves) {
-                updateBoardState(move.x, move.y, currentTurnColor, false);  // AI搜索不更新history
-                int eval = minimax(depth - 1, alpha, beta, true, nextTurnColor);
-                updateBoardState(move.x, move.y, EMPTY, false);  // AI搜索不更新history
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break;
-            }
-            transpositionTable.put(currentZobristKey, new TranspositionEntry(minEval, depth));
-            return minEval;
-        }
-    }
-
-    private int evaluate(int winner) {
-        int aiColor = (humanPlayerColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-        if (winner == aiColor) return 1000000;
-        if (winner == humanPlayerColor) return -1000000;
-        return 0;
-    }
-
-    private int evaluateBoard() {
-        int aiColor = (humanPlayerColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-        return calculateTotalScore(aiColor) - calculateTotalScore(humanPlayerColor);
+        return getAiMove(board);
     }
 
-    private int calculateTotalScore(int pieceType) {
-        int totalScore = 0;
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == pieceType) totalScore += POSITIONAL_VALUE[i][j];
-            }
-        totalScore += calculateLineScore(pieceType);
-        return totalScore;
-    }
-
-    private int calculateLineScore(int pieceType) {
-        int score = 0;
-        boolean[][][] visited = new boolean[BOARD_SIZE][BOARD_SIZE][4];
-        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == pieceType) {
-                    for (int d = 0; d < 4; d++) {
-                        if (!visited[i][j][d]) {
-                            int[] result = countLineOnBoard(i, j, directions[d], pieceType);
-                            score += getScoreFromLine(result[0], result[1]);
-                            for (int k = 0; k < result[0]; k++) {
-                                int ni = i + k * directions[d][0], nj = j + k * directions[d][1];
-                                if (isValid(ni, nj)) visited[ni][nj][d] = true;
-                            }
-                        }
-                    }
-                }
-            }
-        return score;
-    }
-
-    private int[] countLineOnBoard(int x, int y, int[] dir, int pieceType) {
-        int count = 1;
-        int openEnds = 0;
-        int opponentType = (pieceType == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-        // Forward
-        for (int i = 1; i < 5; i++) {
-            int curX = x + i * dir[0], curY = y + i * dir[1];
-            if (!isValid(curX, curY) || board[curX][curY] == opponentType) break;
-            if (board[curX][curY] == pieceType) count++;
-            else {
-                openEnds++;
-                break;
-            }
-        }
-        // Backward
-        for (int i = 1; i < 5; i++) {
-            int curX = x - i * dir[0], curY = y - i * dir[1];
-            if (!isValid(curX, curY) || board[curX][curY] == opponentType) break;
-            if (board[curX][curY] == pieceType) count++;
-            else {
-                openEnds++;
-                break;
-            }
-        }
-        return new int[]{count, openEnds};
-    }
-
-    private int getScoreFromLine(int count, int openEnds) {
-        if (count >= 5) return 500000;
-        if (count == 4) return (openEnds == 2) ? 50000 : 500;
-        if (count == 3) return (openEnds == 2) ? 200 : 10;
-        if (count == 2) return (openEnds == 2) ? 5 : 0;
-        return 0;
-    }
-
-    private List<Point> generateMoves() {
-        List<PointScore> scoredMoves = new ArrayList<>();
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == EMPTY && hasNeighbor(i, j)) {
-                    int score = scoreSingleLine(i, j, turnColor) + scoreSingleLine(i, j, humanPlayerColor);
-                    scoredMoves.add(new PointScore(new Point(i, j), score));
-                }
-            }
-        scoredMoves.sort((a, b) -> b.score - a.score);
-        List<Point> moves = new ArrayList<>();
-        for (PointScore sm : scoredMoves) moves.add(sm.point);
-        if (moves.isEmpty() && moveCount < 2) {
-            if (board[7][7] == EMPTY) moves.add(new Point(7, 7));
-            else moves.add(new Point(6, 6));
+    /**
+     * 基于棋盘快照计算AI落子，可在后台线程调用（同一时间只能有一个线程使用AI）
+     */
+    public Point getAiMove(int[][] boardSnapshot) {
+        // 开局阶段优先查开局库，无需搜索
+        if (openingBook != null) {
+            int bookMove = openingBook.lookup(boardSnapshot);
+            if (bookMove >= 0) return new Point(bookMove / BOARD_SIZE, bookMove % BOARD_SIZE);
         }
-        return moves;
+        engine.setPosition(boardSnapshot, getAiColor(), isStrictMode);
+        int move = engine.findBestMove(GobangSearchController.forDifficulty(difficulty));
+        if (move < 0) return null;
+        return new Point(move / BOARD_SIZE, move % BOARD_SIZE);
     }
 
-    private int scoreSingleLine(int x, int y, int pieceType) {
-        int score = 0;
-        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
-        for (int[] dir : directions) {
-            int[] result = countLine(x, y, dir, pieceType);
-            score += getScoreFromLine(result[0], result[1]);
-        }
-        return score;
+    /**
+     * 设置开局库（为 null 时只使用搜索）
+     */
+    public void setOpeningBook(GobangOpeningBook openingBook) {
+        this.openingBook = openingBook;
     }
 
-    private int[] countLine(int x, int y, int[] dir, int pieceType) {
-        board[x][y] = pieceType;
-        int count = 0, openEnds = 0;
-        int opponentType = (pieceType == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
-        for (int i = 1; i < 5; i++) {
-            int curX = x - i * dir[0], curY = y - i * dir[1];
-            if (!isValid(curX, curY) || board[curX][curY] == opponentType) {
-                openEnds = 0;
-                break;
-            }
-            if (board[curX][curY] == pieceType) count++;
-            else {
-                openEnds++;
-                break;
-            }
-        }
-        for (int i = 1; i < 5; i++) {
-            int curX = x + i * dir[0], curY = y + i * dir[1];
-            if (!isValid(curX, curY) || board[curX][curY] == opponentType) {
-                break;
-            }
-            if (board[curX][curY] == pieceType) count++;
-            else {
-                openEnds++;
-                break;
-            }
-        }
-        board[x][y] = EMPTY;
-        return new int[]{count + 1, openEnds};
-    }
-
-    private Point findKillMove(int pieceType) {
-        List<Point> candidates = generateMoves();
-        for (Point p : candidates) {
-            board[p.x][p.y] = pieceType;
-            int liveThrees = 0, fours = 0;
-            int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
-            for (int[] dir : directions) {
-                String lineType = getLineType(p.x, p.y, dir[0], dir[1], pieceType);
-                if (lineType.equals("LIVE_THREE")) liveThrees++;
-                if (lineType.equals("FOUR")) fours++;
-            }
-            board[p.x][p.y] = EMPTY;
-            if (fours >= 1 && liveThrees >= 1) return p;
-            if (liveThrees >= 2) return p;
-        }
-        return null;
+    /**
+     * 创建后台思考控制器，简单难度不进行后台思考，返回 null
+     */
+    public GobangSearchController createPonderController() {
+        if (difficulty == GobangSearchController.DIFFICULTY_EASY) return null;
+        return GobangSearchController.forPondering(difficulty);
     }
 
-    private Point findWinningMove(int pieceType) {
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == EMPTY && hasNeighbor(i, j)) {
-                    board[i][j] = pieceType;
-                    if (checkWin(i, j)) {
-                        board[i][j] = EMPTY;
-                        return new Point(i, j);
-                    }
-                    board[i][j] = EMPTY;
-                }
-            }
-        return null;
+    /**
+     * 在真人玩家思考期间预先搜索AI的应对，结果保留在置换表中，直到 controller 被停止才返回
+     * 与 getAiMove 共用同一个引擎，调用方需保证二者在同一线程上串行执行
+     */
+    public void ponder(int[][] boardSnapshot, GobangSearchController controller) {
+        engine.setPosition(boardSnapshot, getAiColor(), isStrictMode);
+        engine.ponder(controller);
     }
 
-    private int getImmediateWinner() {
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++)
-                if (board[i][j] != EMPTY) if (checkWin(i, j)) return board[i][j];
-        return EMPTY;
+    /**
+     * 当前棋盘的 Zobrist 哈希，所有设备上同一棋盘的哈希相同，可用于联机状态校验
+     */
+    public long getStateHash() {
+        return stateHash;
     }
 
-    private boolean hasNeighbor(int x, int y) {
-        for (int i = -1; i <= 1; i++)
-            for (int j = -1; j <= 1; j++) {
-                if (i == 0 && j == 0) continue;
-                if (isValid(x + i, y + j) && board[x + i][y + j] != EMPTY) return true;
-            }
-        return false;
+    /**
+     * 当前棋盘在 8 种对称变换下的规范哈希，旋转/镜像后的同一局面返回相同值，可用作缓存键
+     */
+    public long getCanonicalStateHash() {
+        return GobangZobrist.canonicalHash(board, null);
     }
 
-    private static class PointScore {
-        Point point;
-        int score;
-
-        PointScore(Point point, int score) {
-            this.point = point;
-            this.score = score;
+    /**
+     * 获取棋盘副本，供后台线程使用
+     */
+    public int[][] getBoardSnapshot() {
+        int[][] copy = new int[BOARD_SIZE][BOARD_SIZE];
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            System.arraycopy(board[i], 0, copy[i], 0, BOARD_SIZE);
         }
+        return copy;
     }
 
-    private static class TranspositionEntry {
-        int score;
-        int depth;
-
-        TranspositionEntry(int score, int depth) {
-            this.score = score;
-            this.depth = depth;
-        }
+    private int getAiColor() {
+        return (humanPlayerColor == BLACK_PIECE) ? WHITE_PIECE : BLACK_PIECE;
     }
 }
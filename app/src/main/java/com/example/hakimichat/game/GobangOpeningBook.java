@@ -0,0 +1,120 @@
+package com.example.hakimichat.game;
+
+import android.content.Context;
+
+import com.example.hakimichat.R;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 五子棋开局库
+ * 局面用 GobangZobrist 的规范哈希（8 种对称变换中的最小值）作为键，
+ * 因此同一开局的旋转/镜像只需存储一次。
+ * 数据存放在 res/raw/gobang_openings，格式为按键排序的二进制表，查询时二分查找：
+ * 头部 {int 魔数, int 版本, int 最大棋子数, int 条目数}，之后每条 {long 键, short 归一化后的落子}
+ */
+public class GobangOpeningBook {
+
+    private static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+    private static final int EMPTY = GobangGame.EMPTY;
+    private static final int MAGIC = 0x47424F4B; // "GBOK"
+    private static final int VERSION = 1;
+
+    private static volatile GobangOpeningBook instance;
+
+    private final long[] keys;
+    private final short[] moves;
+    private final int maxStones;
+
+    private GobangOpeningBook(long[] keys, short[] moves, int maxStones) {
+        this.keys = keys;
+        this.moves = moves;
+        this.maxStones = maxStones;
+    }
+
+    /**
+     * 获取开局库（首次调用时从资源加载，应在后台线程调用）
+     * @return 开局库，加载失败时返回 null
+     */
+    public static GobangOpeningBook get(Context context) {
+        if (instance == null) {
+            synchronized (GobangOpeningBook.class) {
+                if (instance == null) {
+                    try (InputStream in = context.getApplicationContext().getResources()
+                            .openRawResource(R.raw.gobang_openings)) {
+                        instance = read(in);
+                    } catch (Exception e) {
+                        android.util.Log.w("GobangOpeningBook", "加载开局库失败", e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 从二进制流读取开局库
+     */
+    public static GobangOpeningBook read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) throw new IOException("不是开局库文件");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("不支持的开局库版本: " + version);
+        int maxStones = in.readInt();
+        int count = in.readInt();
+        long[] keys = new long[count];
+        short[] moves = new short[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.readLong();
+            moves[i] = in.readShort();
+        }
+        return new GobangOpeningBook(keys, moves, maxStones);
+    }
+
+    /**
+     * 写出开局库（供生成工具使用），keys 必须已按升序排列且不重复
+     */
+    public static void write(OutputStream output, long[] keys, short[] moves, int maxStones) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(maxStones);
+        out.writeInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.writeLong(keys[i]);
+            out.writeShort(moves[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * 查询当前局面的开局库落子
+     * @return 编码后的落子 x * BOARD_SIZE + y，未收录时返回 -1
+     */
+    public int lookup(int[][] board) {
+        int stones = 0;
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                if (board[i][j] != EMPTY && ++stones > maxStones) return -1;
+
+        int[] transform = new int[1];
+        long key = GobangZobrist.canonicalHash(board, transform);
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) return -1;
+
+        // 库中存储的是归一化方向下的落子，需要变换回当前棋盘方向
+        int move = GobangZobrist.inverseTransform(moves[index], transform[0]);
+        if (board[move / BOARD_SIZE][move % BOARD_SIZE] != EMPTY) return -1;
+        return move;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
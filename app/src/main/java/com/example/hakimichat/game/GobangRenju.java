@@ -0,0 +1,273 @@
+package com.example.hakimichat.game;
+
+/**
+ * 五子棋严格模式（连珠规则）的黑方禁手判断：三三、四四、长连，包括跳三、跳四和同一直线上的四四。
+ *
+ * 每个方向的每条直线用两个位掩码表示（黑子 / 白子或棋盘外），落子和提子时增量更新。
+ * 判断时取落子点两侧各 5 格组成的窗口，经二进制转三进制查表得到该方向的棋型，
+ * 棋型表在类加载时预先计算好，运行时每个方向只需几次移位和一次查表。
+ * 活三是否成立还取决于形成活四的关键点本身是否为禁手，这一步在棋盘上递归判断。
+ */
+public class GobangRenju {
+
+    private static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+    private static final int BLACK_PIECE = GobangGame.BLACK_PIECE;
+
+    // 窗口为落子点两侧各 HALF 格，共 WINDOW 格，其中中心格为落子点
+    private static final int HALF = 5;
+    private static final int WINDOW = HALF * 2 + 1;
+    private static final int WINDOW_MASK = (1 << WINDOW) - 1;
+    private static final int PATTERN_COUNT = 59049; // 3^10，中心格固定为黑子不参与编码
+
+    // 棋型表的编码：低 2 位为冲四数，第 2 位为连五，第 3 位为长连，
+    // 4-7 位与 8-11 位为活三的两个关键点（窗口下标 + 1，0 表示无）
+    private static final int FOUR_MASK = 0x3;
+    private static final int FLAG_FIVE = 1 << 2;
+    private static final int FLAG_OVERLINE = 1 << 3;
+    private static final int KEY_SHIFT_1 = 4;
+    private static final int KEY_SHIFT_2 = 8;
+
+    // 窗口内格子的取值
+    private static final int CELL_EMPTY = 0;
+    private static final int CELL_OWN = 1;
+    private static final int CELL_BLOCKED = 2;
+
+    // 活三递归判断的最大层数，超过后视为关键点可下
+    private static final int MAX_RECURSION = 4;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+    private static final int LINE_COUNT = BOARD_SIZE * 2 - 1;
+
+    private static final short[] PATTERNS = new short[PATTERN_COUNT];
+    private static final int[] BINARY_TO_TERNARY = new int[1 << (WINDOW - 1)];
+
+    // 每条直线的棋盘外部分，两端各留 HALF 位的边界
+    private static final int[][] BORDER_MASKS = new int[DIRECTIONS.length][LINE_COUNT];
+
+    static {
+        for (int bits = 0; bits < BINARY_TO_TERNARY.length; bits++) {
+            int value = 0;
+            for (int i = WINDOW - 2; i >= 0; i--) {
+                value = value * 3 + ((bits >> i) & 1);
+            }
+            BINARY_TO_TERNARY[bits] = value;
+        }
+
+        int[] cells = new int[WINDOW];
+        for (int index = 0; index < PATTERN_COUNT; index++) {
+            int rest = index;
+            for (int i = 0; i < WINDOW; i++) {
+                if (i == HALF) {
+                    cells[i] = CELL_OWN;
+                    continue;
+                }
+                cells[i] = rest % 3;
+                rest /= 3;
+            }
+            PATTERNS[index] = (short) classify(cells);
+        }
+
+        for (int d = 0; d < DIRECTIONS.length; d++)
+            for (int line = 0; line < LINE_COUNT; line++) {
+                int mask = 0;
+                for (int pos = -HALF; pos < BOARD_SIZE + HALF; pos++) {
+                    if (!isOnBoard(d, line, pos)) mask |= 1 << (pos + HALF);
+                }
+                BORDER_MASKS[d][line] = mask;
+            }
+    }
+
+    private final int[][] blackLines = new int[DIRECTIONS.length][LINE_COUNT];
+    private final int[][] blockedLines = new int[DIRECTIONS.length][LINE_COUNT];
+    private final int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
+
+    public GobangRenju() {
+        clear();
+    }
+
+    /**
+     * 清空棋盘
+     */
+    public void clear() {
+        for (int d = 0; d < DIRECTIONS.length; d++)
+            for (int line = 0; line < LINE_COUNT; line++) {
+                blackLines[d][line] = 0;
+                blockedLines[d][line] = BORDER_MASKS[d][line];
+            }
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                board[i][j] = GobangGame.EMPTY;
+    }
+
+    /**
+     * 从完整棋盘重建位掩码
+     */
+    public void load(int[][] source) {
+        clear();
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                if (source[i][j] != GobangGame.EMPTY) place(i, j, source[i][j]);
+    }
+
+    public void place(int x, int y, int pieceType) {
+        board[x][y] = pieceType;
+        int[][] lines = (pieceType == BLACK_PIECE) ? blackLines : blockedLines;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            lines[d][lineOf(d, x, y)] |= 1 << (positionOf(d, x, y) + HALF);
+        }
+    }
+
+    public void remove(int x, int y) {
+        int pieceType = board[x][y];
+        if (pieceType == GobangGame.EMPTY) return;
+        board[x][y] = GobangGame.EMPTY;
+        int[][] lines = (pieceType == BLACK_PIECE) ? blackLines : blockedLines;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            lines[d][lineOf(d, x, y)] &= ~(1 << (positionOf(d, x, y) + HALF));
+        }
+    }
+
+    /**
+     * 判断黑方在空位 (x, y) 落子是否为禁手（形成恰好五连时不算禁手）
+     */
+    public boolean isForbidden(int x, int y) {
+        return isForbidden(x, y, 0);
+    }
+
+    private boolean isForbidden(int x, int y, int depth) {
+        int fours = 0, threeDirections = 0;
+        boolean overline = false;
+        int[] codes = new int[DIRECTIONS.length];
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int code = patternAt(d, x, y);
+            if ((code & FLAG_FIVE) != 0) return false;
+            if ((code & FLAG_OVERLINE) != 0) overline = true;
+            fours += code & FOUR_MASK;
+            if ((code >> KEY_SHIFT_1) != 0) threeDirections++;
+            codes[d] = code;
+        }
+        if (overline || fours >= 2) return true;
+        if (threeDirections < 2) return false;
+
+        // 至少两个方向有活三的形状时，逐个确认关键点不是禁手
+        place(x, y, BLACK_PIECE);
+        int threes = 0;
+        for (int d = 0; d < DIRECTIONS.length && threes < 2; d++) {
+            if ((codes[d] >> KEY_SHIFT_1) != 0 && isRealThree(x, y, d, codes[d], depth)) threes++;
+        }
+        remove(x, y);
+        return threes >= 2;
+    }
+
+    private boolean isRealThree(int x, int y, int d, int code, int depth) {
+        if (depth >= MAX_RECURSION) return true;
+        int[] keys = {(code >> KEY_SHIFT_1) & 0xF, (code >> KEY_SHIFT_2) & 0xF};
+        for (int key : keys) {
+            if (key == 0) continue;
+            int offset = key - 1 - HALF;
+            int kx = x + offset * DIRECTIONS[d][0], ky = y + offset * DIRECTIONS[d][1];
+            if (!isForbidden(kx, ky, depth + 1)) return true;
+        }
+        return false;
+    }
+
+    private int patternAt(int d, int x, int y) {
+        int line = lineOf(d, x, y);
+        int pos = positionOf(d, x, y);
+        // 位下标已偏移 HALF，窗口起点恰好是 pos
+        int black = (blackLines[d][line] >>> pos) & WINDOW_MASK;
+        int blocked = (blockedLines[d][line] >>> pos) & WINDOW_MASK;
+        return PATTERNS[BINARY_TO_TERNARY[dropCenter(black)] + CELL_BLOCKED * BINARY_TO_TERNARY[dropCenter(blocked)]];
+    }
+
+    private static int dropCenter(int bits) {
+        return (bits & ((1 << HALF) - 1)) | ((bits >>> (HALF + 1)) << HALF);
+    }
+
+    // 直线编号与直线上的位置，位置沿 DIRECTIONS[d] 的方向递增
+    private static int lineOf(int d, int x, int y) {
+        switch (d) {
+            case 0: return y;
+            case 1: return x;
+            case 2: return x - y + BOARD_SIZE - 1;
+            default: return x + y;
+        }
+    }
+
+    private static int positionOf(int d, int x, int y) {
+        return d == 1 ? y : x;
+    }
+
+    private static boolean isOnBoard(int d, int line, int pos) {
+        if (pos < 0 || pos >= BOARD_SIZE) return false;
+        int other;
+        switch (d) {
+            case 2: other = pos - line + BOARD_SIZE - 1; break;
+            case 3: other = line - pos; break;
+            default: return true;
+        }
+        return other >= 0 && other < BOARD_SIZE;
+    }
+
+    /**
+     * 对中心为黑子的窗口计算棋型编码
+     */
+    private static int classify(int[] cells) {
+        int run = runThroughCenter(cells);
+        if (run == 5) return FLAG_FIVE;
+        if (run > 5) return FLAG_OVERLINE;
+
+        int fours = countFours(cells);
+        if (fours > 0) return fours;
+
+        int code = 0, shift = KEY_SHIFT_1;
+        for (int i = 0; i < WINDOW && shift <= KEY_SHIFT_2; i++) {
+            if (cells[i] != CELL_EMPTY) continue;
+            cells[i] = CELL_OWN;
+            if (isStraightFour(cells)) {
+                code |= (i + 1) << shift;
+                shift += KEY_SHIFT_2 - KEY_SHIFT_1;
+            }
+            cells[i] = CELL_EMPTY;
+        }
+        return code;
+    }
+
+    // 冲四数：能形成恰好五连的点数，活四（两个成五点相距 5）只算一个，同线四四算两个
+    private static int countFours(int[] cells) {
+        int first = -1, count = 0;
+        for (int i = 0; i < WINDOW; i++) {
+            if (cells[i] != CELL_EMPTY) continue;
+            cells[i] = CELL_OWN;
+            if (runThroughCenter(cells) == 5) {
+                if (count == 0) first = i;
+                count++;
+                if (count == 2 && i - first == 5) count = 1;
+            }
+            cells[i] = CELL_EMPTY;
+        }
+        return Math.min(count, 2);
+    }
+
+    private static boolean isStraightFour(int[] cells) {
+        if (runThroughCenter(cells) >= 5) return false;
+        int first = -1;
+        for (int i = 0; i < WINDOW; i++) {
+            if (cells[i] != CELL_EMPTY) continue;
+            cells[i] = CELL_OWN;
+            boolean five = runThroughCenter(cells) == 5;
+            cells[i] = CELL_EMPTY;
+            if (!five) continue;
+            if (first < 0) first = i;
+            else if (i - first == 5) return true;
+        }
+        return false;
+    }
+
+    private static int runThroughCenter(int[] cells) {
+        int run = 1;
+        for (int i = HALF - 1; i >= 0 && cells[i] == CELL_OWN; i--) run++;
+        for (int i = HALF + 1; i < WINDOW && cells[i] == CELL_OWN; i++) run++;
+        return run;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.hakimichat.game;
+
+/**
+ * 五子棋AI搜索控制器
+ * 负责节点计数、时间预算（软/硬限制）和中止判断：
+ * - 时钟每 CLOCK_POLL_INTERVAL 个节点才读取一次，避免每个节点调用 System.currentTimeMillis()
+ * - 一旦中止，搜索返回的分数都不可信，调用方不得使用也不得写入置换表
+ * - 软限制决定是否开始下一轮迭代加深，硬限制决定何时中止正在进行的搜索
+ */
+public class GobangSearchController {
+
+    // 难度等级
+    public static final int DIFFICULTY_EASY = 0;
+    public static final int DIFFICULTY_NORMAL = 1;
+    public static final int DIFFICULTY_HARD = 2;
+
+    private static final int CLOCK_POLL_INTERVAL = 1024;
+    private static final int CLOCK_POLL_MASK = CLOCK_POLL_INTERVAL - 1;
+
+    // 各难度的预算：{最大深度, 节点预算(0为不限), 软限制ms, 硬限制ms}
+    // 简单/普通以节点数为主要预算，保证不同设备上棋力一致；困难以时间为预算
+    private static final long[][] DIFFICULTY_BUDGETS = {
+            {2, 20_000, 500, 1000},
+            {4, 400_000, 1500, 2500},
+            {8, 0, 2500, 5000}
+    };
+
+    private final int maxDepth;
+    private final long nodeBudget;
+    private final long softLimitMs;
+    private final long hardLimitMs;
+
+    private long startTime;
+    private long nodes;
+    private long ttProbes;
+    private long ttHits;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    public GobangSearchController(int maxDepth, long nodeBudget, long softLimitMs, long hardLimitMs) {
+        this.maxDepth = maxDepth;
+        this.nodeBudget = nodeBudget;
+        this.softLimitMs = softLimitMs;
+        this.hardLimitMs = hardLimitMs;
+    }
+
+    /**
+     * 根据难度等级创建控制器
+     */
+    public static GobangSearchController forDifficulty(int difficulty) {
+        if (difficulty < DIFFICULTY_EASY || difficulty > DIFFICULTY_HARD) {
+            difficulty = DIFFICULTY_NORMAL;
+        }
+        long[] budget = DIFFICULTY_BUDGETS[difficulty];
+        return new GobangSearchController((int) budget[0], budget[1], budget[2], budget[3]);
+    }
+
+    /**
+     * 创建后台思考用的控制器：深度与难度一致，没有时间/节点限制，只能通过 stop() 结束
+     */
+    public static GobangSearchController forPondering(int difficulty) {
+        if (difficulty < DIFFICULTY_EASY || difficulty > DIFFICULTY_HARD) {
+            difficulty = DIFFICULTY_NORMAL;
+        }
+        return new GobangSearchController((int) DIFFICULTY_BUDGETS[difficulty][0], 0, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 开始一次新的搜索，重置计数与中止标记
+     * 不清除 stop() 请求：控制器只用于一次搜索，任务开始前就被停止时应立即结束
+     */
+    public void start() {
+        startTime = System.currentTimeMillis();
+        nodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        aborted = stopRequested;
+    }
+
+    /**
+     * 每访问一个节点调用一次
+     * @return 是否应中止搜索
+     */
+    public boolean tick() {
+        if (aborted) return true;
+        nodes++;
+        if (nodeBudget > 0 && nodes >= nodeBudget) {
+            aborted = true;
+        } else if ((nodes & CLOCK_POLL_MASK) == 0) {
+            if (stopRequested || System.currentTimeMillis() - startTime >= hardLimitMs) {
+                aborted = true;
+            }
+        }
+        return aborted;
+    }
+
+    /**
+     * 记录一次置换表查询（用于统计命中率）
+     */
+    public void recordTtProbe(boolean hit) {
+        ttProbes++;
+        if (hit) ttHits++;
+    }
+
+    /**
+     * 当前搜索是否已中止
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * 是否还有时间开始下一轮迭代加深
+     */
+    public boolean canStartIteration() {
+        if (aborted || stopRequested) return false;
+        if (nodeBudget > 0 && nodes >= nodeBudget) return false;
+        return getElapsedMs() < softLimitMs;
+    }
+
+    /**
+     * 请求停止搜索（可从其他线程调用），在下一次时钟轮询时生效
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTtProbes() {
+        return ttProbes;
+    }
+
+    public long getTtHits() {
+        return ttHits;
+    }
+
+    public long getElapsedMs() {
+        return System.currentTimeMillis() - startTime;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.hakimichat.game;
+
+import java.util.Random;
+
+/**
+ * 五子棋 Zobrist 哈希
+ * 键由固定种子生成，同一局面在所有设备、所有进程中的哈希都相同，可用于联机状态校验、开局库和置换表。
+ * 规范哈希在棋盘的 8 种对称变换（4 种旋转 × 是否镜像）中取最小值，旋转/镜像后的同一局面哈希相同。
+ * 落子位置统一编码为 x * BOARD_SIZE + y。
+ */
+public final class GobangZobrist {
+
+    private static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+    private static final int CELL_COUNT = BOARD_SIZE * BOARD_SIZE;
+    private static final long SEED = 0x48414B494D49L;
+
+    public static final int SYMMETRY_COUNT = 8;
+
+    // KEYS[cell][pieceType]，EMPTY 对应的键为 0
+    private static final long[][] KEYS = new long[CELL_COUNT][3];
+    // TRANSFORMS[t][cell] 为第 t 种对称变换后的位置
+    private static final int[][] TRANSFORMS = new int[SYMMETRY_COUNT][CELL_COUNT];
+
+    static {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < CELL_COUNT; i++) {
+            KEYS[i][GobangGame.BLACK_PIECE] = rand.nextLong();
+            KEYS[i][GobangGame.WHITE_PIECE] = rand.nextLong();
+        }
+        for (int t = 0; t < SYMMETRY_COUNT; t++)
+            for (int cell = 0; cell < CELL_COUNT; cell++)
+                TRANSFORMS[t][cell] = computeTransform(cell, t);
+    }
+
+    private GobangZobrist() {
+    }
+
+    /**
+     * 在 (x, y) 放置 pieceType 对应的键，落子和提子都对哈希异或该值
+     */
+    public static long key(int x, int y, int pieceType) {
+        return KEYS[x * BOARD_SIZE + y][pieceType];
+    }
+
+    /**
+     * 计算整个棋盘的哈希
+     */
+    public static long hash(int[][] board) {
+        long h = 0;
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++)
+                h ^= KEYS[i * BOARD_SIZE + j][board[i][j]];
+        return h;
+    }
+
+    /**
+     * 计算 8 种对称变换下的最小哈希
+     * @param transformOut 若不为 null，transformOut[0] 返回取得最小值的变换编号
+     */
+    public static long canonicalHash(int[][] board, int[] transformOut) {
+        long[] hashes = new long[SYMMETRY_COUNT];
+        for (int i = 0; i < BOARD_SIZE; i++)
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                int piece = board[i][j];
+                if (piece == GobangGame.EMPTY) continue;
+                int cell = i * BOARD_SIZE + j;
+                for (int t = 0; t < SYMMETRY_COUNT; t++) {
+                    hashes[t] ^= KEYS[TRANSFORMS[t][cell]][piece];
+                }
+            }
+        int best = 0;
+        for (int t = 1; t < SYMMETRY_COUNT; t++) {
+            if (hashes[t] < hashes[best]) best = t;
+        }
+        if (transformOut != null) transformOut[0] = best;
+        return hashes[best];
+    }
+
+    /**
+     * 对编码后的位置应用第 t 种对称变换（0-3 为旋转，4-7 为镜像）
+     */
+    public static int transform(int cell, int t) {
+        return TRANSFORMS[t][cell];
+    }
+
+    /**
+     * 第 t 种变换的逆变换（只有两种旋转互为逆变换，其余变换的逆为自身）
+     */
+    public static int inverseTransform(int cell, int t) {
+        if (t == 1) return TRANSFORMS[3][cell];
+        if (t == 3) return TRANSFORMS[1][cell];
+        return TRANSFORMS[t][cell];
+    }
+
+    private static int computeTransform(int cell, int t) {
+        int n = BOARD_SIZE - 1;
+        int x = cell / BOARD_SIZE, y = cell % BOARD_SIZE;
+        int nx, ny;
+        switch (t) {
+            case 1: nx = y; ny = n - x; break;
+            case 2: nx = n - x; ny = n - y; break;
+            case 3: nx = n - y; ny = x; break;
+            case 4: nx = n - x; ny = y; break;
+            case 5: nx = x; ny = n - y; break;
+            case 6: nx = y; ny = x; break;
+            case 7: nx = n - y; ny = n - x; break;
+            default: nx = x; ny = y; break;
+        }
+        return nx * BOARD_SIZE + ny;
+    }
+}
@@ -16,6 +16,7 @@ import android.graphics.Color;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.hakimichat.AvatarGlyphCache;
 import com.example.hakimichat.R;
 
 import org.json.JSONException;
@@ -433,7 +434,7 @@ public class TicTacToeActivity extends AppCompatActivity {
         }
     }
 
-    // 简单 AI：查找第一个空位并下子（AI 名称为 players 列表的第二项）
+    // 人机模式 AI：查完美着法表落子（AI 名称为 players 列表的第二项）
     private void performAIMoveIfNeeded() {
         if (!isSinglePlayer || game == null || game.isGameOver()) return;
 
@@ -447,155 +448,20 @@ public class TicTacToeActivity extends AppCompatActivity {
         // 只有当轮到 AI 时才移动
         if (!aiName.equals(current)) return;
 
-        // 构造当前棋盘的本地副本
-        String[][] board = new String[3][3];
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = game.getPiece(i, j);
-            }
-        }
-
-        // 确定符号：AI 的棋子和人的棋子
-        String aiPiece = game.getPlayerPiece(aiName); // "X" 或 "O"
-        String humanName = players.get(0);
-        String humanPiece = game.getPlayerPiece(humanName);
-
-        java.util.Random rnd = new java.util.Random();
-        // 90% 概率使用最优策略，10% 随机策略
-        boolean useOptimal = rnd.nextInt(100) < 90;
-
-        int bestRow = -1, bestCol = -1;
-
-        if (useOptimal) {
-            int[] best = findBestMove(board, aiPiece, humanPiece);
-            if (best != null) {
-                bestRow = best[0];
-                bestCol = best[1];
-            }
-        }
-
-        // 若未选到最优或选择随机分支，随机挑选空位
-        if (bestRow == -1) {
-            java.util.List<int[]> empties = new java.util.ArrayList<>();
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j].equals("")) empties.add(new int[]{i, j});
-                }
-            }
-            if (empties.isEmpty()) return;
-            int[] pick = empties.get(rnd.nextInt(empties.size()));
-            bestRow = pick[0];
-            bestCol = pick[1];
-        }
+        // 查表为 O(1)，直接在主线程计算；按默认概率偶尔随机落子，避免AI完全不可战胜
+        int[] best = game.getAiMove(aiName);
+        if (best == null) return;
 
         try {
             JSONObject move = new JSONObject();
-            move.put("row", bestRow);
-            move.put("col", bestCol);
+            move.put("row", best[0]);
+            move.put("col", best[1]);
             gameManager.sendGameMove(gameId, aiName, move);
         } catch (JSONException e) {
             e.printStackTrace();
         }
     }
 
-    // Minimax: 找到对 AI 最优的落子，返回 {row, col} 或 null
-    private int[] findBestMove(String[][] board, String aiPiece, String humanPiece) {
-        int bestScore = Integer.MIN_VALUE;
-        java.util.List<int[]> bestMoves = new java.util.ArrayList<>();
-
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j].equals("")) {
-                    board[i][j] = aiPiece;
-                    int score = minimax(board, 0, false, aiPiece, humanPiece);
-                    board[i][j] = "";
-
-                    if (score > bestScore) {
-                        bestScore = score;
-                        bestMoves.clear();
-                        bestMoves.add(new int[]{i, j});
-                    } else if (score == bestScore) {
-                        // 相同的最优分值，加入候选集合
-                        bestMoves.add(new int[]{i, j});
-                    }
-                }
-            }
-        }
-
-        if (bestMoves.isEmpty()) return null;
-
-        // 如果有多个最优落子，随机选取一个，避免每次都落同一位置
-        java.util.Random rnd = new java.util.Random();
-        return bestMoves.get(rnd.nextInt(bestMoves.size()));
-    }
-
-    // 递归 Minimax 实现
-    private int minimax(String[][] board, int depth, boolean isMaximizing, String aiPiece, String humanPiece) {
-        String winner = evaluateBoard(board, aiPiece, humanPiece);
-        if (winner != null) {
-            if (winner.equals(aiPiece)) return 10 - depth; // 更快获胜得分更高
-            if (winner.equals(humanPiece)) return depth - 10; // 更晚被击败更好（负分）
-            return 0; // 平局
-        }
-
-        if (isMaximizing) {
-            int best = Integer.MIN_VALUE;
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j].equals("")) {
-                        board[i][j] = aiPiece;
-                        int val = minimax(board, depth + 1, false, aiPiece, humanPiece);
-                        board[i][j] = "";
-                        best = Math.max(best, val);
-                    }
-                }
-            }
-            return best;
-        } else {
-            int best = Integer.MAX_VALUE;
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j].equals("")) {
-                        board[i][j] = humanPiece;
-                        int val = minimax(board, depth + 1, true, aiPiece, humanPiece);
-                        board[i][j] = "";
-                        best = Math.min(best, val);
-                    }
-                }
-            }
-            return best;
-        }
-    }
-
-    // 评估当前棋盘是否有赢家或平局。返回 aiPiece/humanPiece/"DRAW"/null
-    private String evaluateBoard(String[][] b, String aiPiece, String humanPiece) {
-        // 行
-        for (int i = 0; i < 3; i++) {
-            if (!b[i][0].equals("") && b[i][0].equals(b[i][1]) && b[i][1].equals(b[i][2])) {
-                return b[i][0];
-            }
-        }
-        // 列
-        for (int j = 0; j < 3; j++) {
-            if (!b[0][j].equals("") && b[0][j].equals(b[1][j]) && b[1][j].equals(b[2][j])) {
-                return b[0][j];
-            }
-        }
-        // 对角
-        if (!b[0][0].equals("") && b[0][0].equals(b[1][1]) && b[1][1].equals(b[2][2]))
-            return b[0][0];
-        if (!b[0][2].equals("") && b[0][2].equals(b[1][1]) && b[1][1].equals(b[2][0]))
-            return b[0][2];
-
-        // 检查是否还有空位
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (b[i][j].equals("")) return null; // 游戏未结束
-            }
-        }
-        return "DRAW";
-    }
-
     private void updateUI() {
         // 更新玩家信息
         java.util.List<String> players = game.getPlayers();
@@ -616,22 +482,20 @@ public class TicTacToeActivity extends AppCompatActivity {
             tvPlayerO.setText("玩家O: ");
         }
 
-        // 头像：使用布局中的 TextView，显示首字，AI 显示为“电”
+        // 头像：显示首字，AI 显示为“电”
         try {
             if (players.size() >= 1) {
                 String name0 = players.get(0);
-                String display = (name0 != null && name0.startsWith("电脑")) ? "电" : (name0 != null && !name0.isEmpty() ? String.valueOf(name0.charAt(0)) : "?");
-                ivPlayerXAvatar.setText(display);
+                AvatarGlyphCache.bind(ivPlayerXAvatar, name0 != null ? name0 : "");
             } else {
-                ivPlayerXAvatar.setText("");
+                AvatarGlyphCache.bind(ivPlayerXAvatar, null);
             }
 
             if (players.size() >= 2) {
                 String name1 = players.get(1);
-                String display1 = (name1 != null && name1.startsWith("电脑")) ? "电" : (name1 != null && !name1.isEmpty() ? String.valueOf(name1.charAt(0)) : "?");
-                ivPlayerOAvatar.setText(display1);
+                AvatarGlyphCache.bind(ivPlayerOAvatar, name1 != null ? name1 : "");
             } else {
-                ivPlayerOAvatar.setText("");
+                AvatarGlyphCache.bind(ivPlayerOAvatar, null);
             }
         } catch (Exception ignore) {
             // 忽略资源加载错误
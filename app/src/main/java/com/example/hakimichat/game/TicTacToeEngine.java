@@ -0,0 +1,120 @@
+package com.example.hakimichat.game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 井字棋AI：完美着法表
+ * 棋盘用两个 9 位掩码表示（第 row * 3 + col 位为该格），一方的棋子为 mine，另一方为 theirs。
+ * 类加载时从空棋盘做一次带记忆的极小化极大搜索（不超过 3^9 个局面），记录行棋方的所有最优落子，
+ * 之后取着法和判断胜负都只需查表。
+ * 表按“行棋方/对手”而不是 X/O 建立，先手可以是任意一方。
+ */
+public final class TicTacToeEngine {
+
+    public static final int NO_MOVE = -1;
+    public static final int FULL_BOARD = 0x1FF;
+
+    // 八条连线
+    private static final int[] LINES = {
+            0x007, 0x038, 0x1C0, // 行
+            0x049, 0x092, 0x124, // 列
+            0x111, 0x054         // 对角线
+    };
+
+    // WINNING[mask]：mask 中是否有三子连线
+    private static final boolean[] WINNING = new boolean[512];
+    // TERNARY[mask]：mask 各位按三进制展开（第 i 位为 3^i），局面下标 = TERNARY[mine] + 2 * TERNARY[theirs]
+    private static final int[] TERNARY = new int[512];
+    // BEST_MOVES[局面下标]：行棋方所有最优落子的掩码，终局为 0
+    private static final short[] BEST_MOVES = new short[19683];
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    static {
+        for (int mask = 0; mask < 512; mask++) {
+            for (int line : LINES) {
+                if ((mask & line) == line) {
+                    WINNING[mask] = true;
+                    break;
+                }
+            }
+            int value = 0;
+            for (int i = 8; i >= 0; i--) value = value * 3 + ((mask >>> i) & 1);
+            TERNARY[mask] = value;
+        }
+
+        // 局面分值（行棋方视角）只在建表时使用；先手可以是任意一方，从空棋盘出发即可覆盖所有可达局面
+        byte[] scores = new byte[BEST_MOVES.length];
+        Arrays.fill(scores, UNKNOWN);
+        solve(0, 0, scores);
+    }
+
+    private TicTacToeEngine() {
+    }
+
+    /**
+     * mask 中是否有三子连线
+     */
+    public static boolean isWin(int mask) {
+        return WINNING[mask];
+    }
+
+    /**
+     * 行棋方（棋子为 mine）的全部最优落子的掩码；已分出胜负或棋盘已满时为 0
+     */
+    public static int getBestMoves(int mine, int theirs) {
+        return BEST_MOVES[TERNARY[mine] + 2 * TERNARY[theirs]];
+    }
+
+    /**
+     * 为行棋方选一步棋：以 errorRate 的概率随机落在空格上，否则在最优落子中随机选一个
+     * @return 格子编号 row * 3 + col，没有空格或已分出胜负时返回 NO_MOVE
+     */
+    public static int pickMove(int mine, int theirs, double errorRate, Random random) {
+        int empty = FULL_BOARD & ~(mine | theirs);
+        if (empty == 0 || WINNING[mine] || WINNING[theirs]) return NO_MOVE;
+        int candidates = random.nextDouble() < errorRate ? 0 : getBestMoves(mine, theirs);
+        // 不可达的局面（例如同步出错）表中没有着法，同样随机落子
+        if (candidates == 0) candidates = empty;
+        return nthBit(candidates, random.nextInt(Integer.bitCount(candidates)));
+    }
+
+    private static int nthBit(int mask, int n) {
+        for (int i = 0; i < n; i++) mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * 负极大值搜索并填写最优落子；对手刚连成三子时行棋方得负分，空格越多分值绝对值越大
+     */
+    private static int solve(int mine, int theirs, byte[] scores) {
+        int index = TERNARY[mine] + 2 * TERNARY[theirs];
+        if (scores[index] != UNKNOWN) return scores[index];
+
+        int empty = FULL_BOARD & ~(mine | theirs);
+        int best;
+        if (WINNING[mine]) {
+            best = 1 + Integer.bitCount(empty);
+        } else if (WINNING[theirs]) {
+            best = -1 - Integer.bitCount(empty);
+        } else if (empty == 0) {
+            best = 0;
+        } else {
+            best = Integer.MIN_VALUE;
+            int bestMoves = 0;
+            for (int moves = empty; moves != 0; moves &= moves - 1) {
+                int bit = moves & -moves;
+                int score = -solve(theirs, mine | bit, scores);
+                if (score > best) {
+                    best = score;
+                    bestMoves = bit;
+                } else if (score == best) {
+                    bestMoves |= bit;
+                }
+            }
+            BEST_MOVES[index] = (short) bestMoves;
+        }
+        scores[index] = (byte) best;
+        return best;
+    }
+}
@@ -15,26 +15,28 @@ public class TicTacToeGame extends BaseGame {
     private static final String EMPTY = "";
     private static final String PLAYER_X = "X";
     private static final String PLAYER_O = "O";
+    // 人机模式下AI随机落子（而不是走最优着法）的概率
+    private static final double DEFAULT_AI_ERROR_RATE = 0.1;
     
-    private String[][] board;  // 3x3 棋盘
+    // 3x3 棋盘：每方一个 9 位掩码，第 row * 3 + col 位为该格
+    private int xMask;
+    private int oMask;
+    private double aiErrorRate = DEFAULT_AI_ERROR_RATE;
+    private final java.util.Random aiRandom = new java.util.Random();
     private String playerXName;
     private String playerOName;
     private int moveCount;
     
     public TicTacToeGame() {
         super();
-        board = new String[3][3];
         initGame();
     }
     
     @Override
     public void initGame() {
         // 初始化棋盘
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = EMPTY;
-            }
-        }
+        xMask = 0;
+        oMask = 0;
         moveCount = 0;
         isGameStarted = false;
         isGameOver = false;
@@ -110,17 +112,22 @@ public class TicTacToeGame extends BaseGame {
             }
             
             // 检查位置是否为空
-            if (!board[row][col].equals(EMPTY)) {
+            int bit = 1 << (row * 3 + col);
+            if (((xMask | oMask) & bit) != 0) {
                 return false;
             }
             
             // 放置棋子
-            String piece = player.equals(playerXName) ? PLAYER_X : PLAYER_O;
-            board[row][col] = piece;
+            int mask;
+            if (player.equals(playerXName)) {
+                mask = (xMask |= bit);
+            } else {
+                mask = (oMask |= bit);
+            }
             moveCount++;
             
             // 检查游戏是否结束
-            if (checkWin(piece)) {
+            if (TicTacToeEngine.isWin(mask)) {
                 isGameOver = true;
                 gameResult = player + " 获胜！";
             } else if (moveCount >= 9) {
@@ -138,44 +145,6 @@ public class TicTacToeGame extends BaseGame {
         }
     }
     
-    /**
-     * 检查是否获胜
-     */
-    private boolean checkWin(String piece) {
-        // 检查行
-        for (int i = 0; i < 3; i++) {
-            if (board[i][0].equals(piece) && 
-                board[i][1].equals(piece) && 
-                board[i][2].equals(piece)) {
-                return true;
-            }
-        }
-        
-        // 检查列
-        for (int i = 0; i < 3; i++) {
-            if (board[0][i].equals(piece) && 
-                board[1][i].equals(piece) && 
-                board[2][i].equals(piece)) {
-                return true;
-            }
-        }
-        
-        // 检查对角线
-        if (board[0][0].equals(piece) && 
-            board[1][1].equals(piece) && 
-            board[2][2].equals(piece)) {
-            return true;
-        }
-        
-        if (board[0][2].equals(piece) && 
-            board[1][1].equals(piece) && 
-            board[2][0].equals(piece)) {
-            return true;
-        }
-        
-        return false;
-    }
-    
     @Override
     public JSONObject getGameState() {
         try {
@@ -197,7 +166,7 @@ public class TicTacToeGame extends BaseGame {
             for (int i = 0; i < 3; i++) {
                 JSONArray row = new JSONArray();
                 for (int j = 0; j < 3; j++) {
-                    row.put(board[i][j]);
+                    row.put(getPiece(i, j));
                 }
                 boardArray.put(row);
             }
@@ -235,10 +204,14 @@ public class TicTacToeGame extends BaseGame {
             // 恢复棋盘状态
             if (state.has("board")) {
                 JSONArray boardArray = state.getJSONArray("board");
+                xMask = 0;
+                oMask = 0;
                 for (int i = 0; i < 3; i++) {
                     JSONArray row = boardArray.getJSONArray(i);
                     for (int j = 0; j < 3; j++) {
-                        board[i][j] = row.getString(j);
+                        String piece = row.getString(j);
+                        if (piece.equals(PLAYER_X)) xMask |= 1 << (i * 3 + j);
+                        else if (piece.equals(PLAYER_O)) oMask |= 1 << (i * 3 + j);
                     }
                 }
             }
@@ -292,7 +265,9 @@ public class TicTacToeGame extends BaseGame {
      */
     public String getPiece(int row, int col) {
         if (row >= 0 && row < 3 && col >= 0 && col < 3) {
-            return board[row][col];
+            int bit = 1 << (row * 3 + col);
+            if ((xMask & bit) != 0) return PLAYER_X;
+            if ((oMask & bit) != 0) return PLAYER_O;
         }
         return EMPTY;
     }
@@ -308,4 +283,31 @@ public class TicTacToeGame extends BaseGame {
         }
         return EMPTY;
     }
+    
+    /**
+     * 设置人机模式下AI随机落子的概率（0 为每步都走最优着法）
+     */
+    public void setAiErrorRate(double errorRate) {
+        this.aiErrorRate = errorRate;
+    }
+    
+    /**
+     * 为指定玩家查表选一步棋
+     * @return {row, col}，该玩家不在对局中或没有可下的位置时返回 null
+     */
+    public int[] getAiMove(String player) {
+        int mine, theirs;
+        if (player.equals(playerXName)) {
+            mine = xMask;
+            theirs = oMask;
+        } else if (player.equals(playerOName)) {
+            mine = oMask;
+            theirs = xMask;
+        } else {
+            return null;
+        }
+        int cell = TicTacToeEngine.pickMove(mine, theirs, aiErrorRate, aiRandom);
+        if (cell == TicTacToeEngine.NO_MOVE) return null;
+        return new int[]{cell / 3, cell % 3};
+    }
 }
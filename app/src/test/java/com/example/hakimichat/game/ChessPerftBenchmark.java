@@ -0,0 +1,88 @@
+package com.example.hakimichat.game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 国际象棋着法生成速度基准工具（在 JVM 上运行，不需要模拟器，不属于单元测试）
+ * 对 src/test/resources/chess_perft.txt 中的初始局面和 Kiwipete 重复做 perft 计时，输出每秒节点数；
+ * 深度取节点数不超过 perft.maxNodes（系统属性，默认 5000000）的最大深度。
+ * 修改着法生成器前后各运行一次，对比输出即可。
+ * 用法：java ... ChessPerftBenchmark
+ */
+public class ChessPerftBenchmark {
+
+    private static final long MAX_NODES = Long.getLong("perft.maxNodes", 5_000_000L);
+    // 预热与计时轮数
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURE_ROUNDS = 5;
+
+    private final ChessMoveGenerator generator = new ChessMoveGenerator();
+    // 每层一个着法缓冲区，递归时不分配对象
+    private final int[][] buffers = new int[16][ChessMoveGenerator.MAX_MOVES];
+
+    public static void main(String[] args) throws Exception {
+        ChessPerftBenchmark benchmark = new ChessPerftBenchmark();
+        InputStream in = ChessPerftBenchmark.class.getClassLoader().getResourceAsStream("chess_perft.txt");
+        if (in == null) throw new IOException("找不到 chess_perft.txt");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\\|");
+                String name = fields[0].trim();
+                if (!name.equals("start") && !name.equals("kiwipete")) continue;
+                String[] tokens = fields[2].trim().split("\\s+");
+                long[] counts = new long[tokens.length];
+                for (int i = 0; i < tokens.length; i++) counts[i] = Long.parseLong(tokens[i]);
+                benchmark.run(name, fields[1].trim(), counts);
+            }
+        }
+    }
+
+    private void run(String name, String fen, long[] counts) {
+        ChessPosition position = new ChessPosition();
+        position.setFen(fen);
+        // 取不超过节点上限的最大深度
+        int depth = 1;
+        while (depth < counts.length && counts[depth] <= MAX_NODES) depth++;
+
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) sink += perft(position, depth);
+        long best = Long.MAX_VALUE, total = 0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += perft(position, depth);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        long nodes = counts[depth - 1];
+        if (sink != nodes * (WARMUP_ROUNDS + MEASURE_ROUNDS)) {
+            throw new IllegalStateException(name + " 节点数与参考值不一致，先运行 ChessPerftTest");
+        }
+        System.out.println(String.format("%-10s 深度 %d：%d 节点，最快 %.1f ms（%.2f M nodes/s），平均 %.1f ms（%.2f M nodes/s）",
+                name, depth, nodes, best / 1e6, nodes * 1e3 / best,
+                total / 1e6 / MEASURE_ROUNDS, nodes * 1e3 * MEASURE_ROUNDS / total));
+    }
+
+    /**
+     * 统计 depth 层的叶子节点数；最后一层只数合法着法，不再 make/unmake
+     */
+    private long perft(ChessPosition position, int depth) {
+        int[] moves = buffers[depth];
+        int count = generator.generateLegal(position, moves);
+        if (depth == 1) return count;
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.make(moves[i]);
+            nodes += perft(position, depth - 1);
+            position.unmake();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.hakimichat.game;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 国际象棋着法生成的 perft 测试，在 JVM 上直接运行（./gradlew test），不需要模拟器。
+ * 参考局面位于 src/test/resources/chess_perft.txt：
+ * - 每个局面按深度统计叶子节点数，必须与参考值一致；不一致时输出第一层每个着法的节点数（divide）便于定位
+ * - perft 结束后局面必须与开始时完全相同（检验 make/unmake 可逆）
+ * - 参考局面经 setFen/toFen 往返后 FEN 不变
+ * 默认只验证节点数不超过 perft.maxNodes（系统属性，默认 5000000）的深度。
+ * 着法生成速度的计时见 ChessPerftBenchmark（不属于单元测试）。
+ */
+public class ChessPerftTest {
+
+    private static final long MAX_NODES = Long.getLong("perft.maxNodes", 5_000_000L);
+
+    private static List<PerftPosition> positions;
+
+    private final ChessMoveGenerator generator = new ChessMoveGenerator();
+    // 每层一个着法缓冲区，递归时不分配对象
+    private final int[][] buffers = new int[16][ChessMoveGenerator.MAX_MOVES];
+
+    @BeforeClass
+    public static void loadPositions() throws Exception {
+        positions = new ArrayList<>();
+        InputStream in = ChessPerftTest.class.getClassLoader().getResourceAsStream("chess_perft.txt");
+        assertNotNull("找不到 chess_perft.txt", in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                positions.add(PerftPosition.parse(line));
+            }
+        }
+        assertTrue(positions.size() > 0);
+    }
+
+    @Test
+    public void perftMatchesReference() {
+        for (PerftPosition entry : positions) {
+            ChessPosition position = entry.newPosition();
+            assertEquals(entry.name + " FEN 往返不一致", entry.fen, position.toFen());
+            String before = snapshot(position);
+            for (int depth = 1; depth <= entry.counts.length; depth++) {
+                long expected = entry.counts[depth - 1];
+                if (expected > MAX_NODES) break;
+                long nodes = perft(position, depth);
+                if (nodes != expected) {
+                    assertEquals(entry.name + " 深度 " + depth + "\n" + divide(position, depth), expected, nodes);
+                }
+                assertEquals(entry.name + " 深度 " + depth + " 后局面未复原", before, snapshot(position));
+            }
+        }
+    }
+
+    /**
+     * 统计 depth 层的叶子节点数；最后一层只数合法着法，不再 make/unmake
+     */
+    private long perft(ChessPosition position, int depth) {
+        int[] moves = buffers[depth];
+        int count = generator.generateLegal(position, moves);
+        if (depth == 1) return count;
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.make(moves[i]);
+            nodes += perft(position, depth - 1);
+            position.unmake();
+        }
+        return nodes;
+    }
+
+    private String divide(ChessPosition position, int depth) {
+        StringBuilder sb = new StringBuilder();
+        int[] moves = buffers[buffers.length - 1].clone();
+        int count = generator.generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            position.make(moves[i]);
+            long nodes = depth > 1 ? perft(position, depth - 1) : 1;
+            position.unmake();
+            sb.append(format(moves[i])).append(": ").append(nodes).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String format(int move) {
+        String text = square(ChessMove.from(move)) + square(ChessMove.to(move));
+        int promotion = ChessMove.promotionType(move);
+        return promotion == ChessGame.EMPTY ? text : text + " prnbqk".charAt(promotion);
+    }
+
+    private static String square(int sq) {
+        return "" + (char) ('a' + sq % 8) + (8 - sq / 8);
+    }
+
+    /**
+     * 局面的完整描述：每格棋子、行棋方、易位权利、过路兵格以及位棋盘与棋盘数组是否一致
+     */
+    private static String snapshot(ChessPosition position) {
+        StringBuilder sb = new StringBuilder();
+        long occupied = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            sb.append((char) ('0' + piece));
+            if (piece != ChessPosition.NO_PIECE) {
+                long bit = 1L << sq;
+                int color = ChessPosition.colorOf(piece);
+                assertTrue("位棋盘与棋盘不一致", (position.pieces[color][ChessPosition.typeOf(piece)] & bit) != 0);
+                assertTrue("占位与棋盘不一致", (position.occupancy[color] & bit) != 0);
+                occupied |= bit;
+            }
+        }
+        assertEquals("占位与棋盘不一致", occupied, position.getOccupied());
+        sb.append(' ').append(position.getSideToMove())
+                .append(' ').append(position.getCastlingRights())
+                .append(' ').append(position.getEnPassantSquare())
+                .append(' ').append(position.getHistorySize());
+        return sb.toString();
+    }
+
+    /**
+     * 参考局面
+     */
+    private static class PerftPosition {
+        String name;
+        String fen;
+        long[] counts;
+
+        static PerftPosition parse(String line) {
+            String[] fields = line.split("\\|");
+            assertEquals(line, 3, fields.length);
+            PerftPosition entry = new PerftPosition();
+            entry.name = fields[0].trim();
+            entry.fen = fields[1].trim();
+            String[] tokens = fields[2].trim().split("\\s+");
+            entry.counts = new long[tokens.length];
+            for (int i = 0; i < tokens.length; i++) entry.counts[i] = Long.parseLong(tokens[i]);
+            return entry;
+        }
+
+        ChessPosition newPosition() {
+            ChessPosition position = new ChessPosition();
+            position.setFen(fen);
+            return position;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.hakimichat.game;
+
+import java.util.List;
+
+/**
+ * 五子棋AI性能基准工具（在 JVM 上运行，不需要模拟器，不属于单元测试）
+ * - 对局面库（见 GobangPositionCorpus）中的每个局面搜索一次，输出节点数、每秒节点数、完成深度、
+ *   置换表命中率和与参考着法的一致情况
+ * - 对 evaluateBoard / generateMoves / isFive 做微基准计时
+ * 修改引擎前后各运行一次，对比输出即可。
+ * 用法：java ... GobangBenchmark [difficulty=1]
+ */
+public class GobangBenchmark {
+
+    private static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+    // 微基准的预热与计时轮数
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURE_ROUNDS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        // 简单/普通以节点数为预算，结果不受机器快慢影响
+        int difficulty = GobangSearchController.DIFFICULTY_NORMAL;
+        for (String arg : args) {
+            if (arg.startsWith("difficulty=")) difficulty = Integer.parseInt(arg.substring("difficulty=".length()));
+        }
+        List<GobangPositionCorpus.Position> corpus = GobangPositionCorpus.load();
+        corpusReport(corpus, difficulty);
+        microBenchmarks(corpus);
+    }
+
+    private static void corpusReport(List<GobangPositionCorpus.Position> corpus, int difficulty) {
+        System.out.println(String.format("%-18s %-7s %-5s %5s %9s %7s %9s %6s",
+                "局面", "着法", "一致", "深度", "节点", "ms", "knps", "TT命中"));
+        long totalNodes = 0, totalMs = 0, totalProbes = 0, totalHits = 0;
+        int agreed = 0, referenced = 0;
+        for (GobangPositionCorpus.Position position : corpus) {
+            GobangEngine engine = position.newEngine();
+            GobangSearchController controller = GobangSearchController.forDifficulty(difficulty);
+            long start = System.nanoTime();
+            int move = engine.findBestMove(controller);
+            long ms = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            if (move < 0 || position.board[move / BOARD_SIZE][move % BOARD_SIZE] != GobangGame.EMPTY) {
+                throw new IllegalStateException(position.name + " 走了非法着法 " + GobangPositionCorpus.format(move));
+            }
+            boolean agree = position.agrees(move);
+            if (position.hasReference()) {
+                referenced++;
+                if (agree) agreed++;
+            }
+            totalNodes += controller.getNodes();
+            totalMs += ms;
+            totalProbes += controller.getTtProbes();
+            totalHits += controller.getTtHits();
+            System.out.println(String.format("%-18s %-7s %-5s %5d %9d %7d %9d %5.1f%%",
+                    position.name, GobangPositionCorpus.format(move), agree ? "是" : "否", engine.getLastCompletedDepth(),
+                    controller.getNodes(), ms, controller.getNodes() / ms, percent(controller.getTtHits(), controller.getTtProbes())));
+        }
+        System.out.println(String.format("合计：一致 %d/%d，节点 %d，耗时 %d ms，%d knps，TT命中 %.1f%%",
+                agreed, referenced, totalNodes, totalMs, totalNodes / Math.max(1, totalMs), percent(totalHits, totalProbes)));
+    }
+
+    private static void microBenchmarks(List<GobangPositionCorpus.Position> corpus) {
+        GobangEngine[] engines = new GobangEngine[corpus.size()];
+        for (int i = 0; i < engines.length; i++) engines[i] = corpus.get(i).newEngine();
+
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) sink += runMicroRound(corpus, engines, round);
+        long[] elapsed = new long[3];
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for (GobangEngine engine : engines) sink += engine.evaluateBoard();
+            long t1 = System.nanoTime();
+            for (int i = 0; i < engines.length; i++) sink += engines[i].generateMoves(corpus.get(i).sideToMove).length;
+            long t2 = System.nanoTime();
+            sink += runFiveChecks(corpus, engines);
+            long t3 = System.nanoTime();
+            elapsed[0] += t1 - t0;
+            elapsed[1] += t2 - t1;
+            elapsed[2] += t3 - t2;
+        }
+
+        long ops = (long) MEASURE_ROUNDS * engines.length;
+        System.out.println(String.format("evaluateBoard  %8d ns/op", elapsed[0] / ops));
+        System.out.println(String.format("generateMoves  %8d ns/op", elapsed[1] / ops));
+        System.out.println(String.format("isFive         %8d ns/op（每个局面检查所有棋子）", elapsed[2] / ops));
+        // 输出计算结果，防止 JIT 把计算当作无用代码消除
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static long runMicroRound(List<GobangPositionCorpus.Position> corpus, GobangEngine[] engines, int round) {
+        long sink = 0;
+        for (int i = 0; i < engines.length; i++) {
+            sink += engines[i].evaluateBoard();
+            sink += engines[i].generateMoves(corpus.get(i).sideToMove).length;
+        }
+        return sink + runFiveChecks(corpus, engines) + round;
+    }
+
+    private static long runFiveChecks(List<GobangPositionCorpus.Position> corpus, GobangEngine[] engines) {
+        long sink = 0;
+        for (int i = 0; i < engines.length; i++) {
+            int[][] board = corpus.get(i).board;
+            for (int x = 0; x < BOARD_SIZE; x++)
+                for (int y = 0; y < BOARD_SIZE; y++)
+                    if (board[x][y] != GobangGame.EMPTY && engines[i].isFive(x, y, board[x][y])) sink++;
+        }
+        return sink;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.hakimichat.game;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 五子棋AI回归测试，在 JVM 上直接运行（./gradlew test），不需要模拟器。
+ * 局面库（见 GobangPositionCorpus）中的战术局面必须找到参考着法。
+ * 节点数、速度等性能数据不在单元测试中输出，需要时运行 GobangBenchmark。
+ */
+public class GobangBenchmarkTest {
+
+    // 简单/普通以节点数为预算，结果不受机器快慢影响
+    private static final int DIFFICULTY = GobangSearchController.DIFFICULTY_NORMAL;
+
+    private static List<GobangPositionCorpus.Position> corpus;
+
+    @BeforeClass
+    public static void loadCorpus() throws Exception {
+        corpus = GobangPositionCorpus.load();
+        assertTrue(corpus.size() > 0);
+    }
+
+    @Test
+    public void tacticalPositionsAreSolved() {
+        for (GobangPositionCorpus.Position position : corpus) {
+            if (!position.tactical) continue;
+            GobangEngine engine = position.newEngine();
+            int move = engine.findBestMove(GobangSearchController.forDifficulty(DIFFICULTY));
+            assertTrue(position.name + " 走了 " + GobangPositionCorpus.format(move), position.agrees(move));
+        }
+    }
+}
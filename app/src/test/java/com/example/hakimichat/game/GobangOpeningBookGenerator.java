@@ -0,0 +1,152 @@
+package com.example.hakimichat.game;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 开局库生成工具（在 JVM 上运行，不需要模拟器）
+ * 覆盖天元开局、黑 1 之后白 2 的应对、白 2 直指/斜指后黑 3 的应对、
+ * 26 种标准开局（直指/斜指各 13 种）的白 4 应对，以及白 4 常见应对下的黑 5。
+ * 每个局面都用比实际对局更大的节点预算搜索，结果按对称归一化后写入 res/raw/gobang_openings.bin。
+ *
+ * 用法：java ... GobangOpeningBookGenerator app/src/main/res/raw/gobang_openings.bin
+ */
+public class GobangOpeningBookGenerator {
+
+    private static final int N = GobangGame.BOARD_SIZE;
+    private static final int C = N / 2;
+    private static final int BLACK = GobangGame.BLACK_PIECE;
+    private static final int WHITE = GobangGame.WHITE_PIECE;
+
+    // 生成时的搜索预算
+    private static final int SEARCH_DEPTH = 8;
+    private static final long SEARCH_NODES = 600_000;
+
+    // 黑 5 阶段为每个开局展开的白 4 候选数
+    private static final int WHITE_FOURTH_CANDIDATES = 6;
+    private static final int MAX_STONES = 4;
+
+    // 白 2 相对天元的位置：直指、斜指
+    private static final int[][] SECOND_MOVES = {{0, 1}, {1, 1}};
+
+    // 黑 3 相对天元的位置（白 2 分别位于 (0,1) 与 (1,1)），各 13 种
+    private static final int[][] DIRECT_THIRD_MOVES = {
+            {0, 2}, {1, 2}, {2, 2}, {1, 1}, {2, 1}, {1, 0}, {2, 0},
+            {0, -1}, {1, -1}, {2, -1}, {0, -2}, {1, -2}, {2, -2}
+    };
+    private static final int[][] INDIRECT_THIRD_MOVES = {
+            {2, 2}, {2, 1}, {2, 0}, {2, -1}, {2, -2}, {1, 0}, {1, -1},
+            {1, -2}, {0, -1}, {0, -2}, {-1, -1}, {-1, -2}, {-2, -2}
+    };
+
+    private final Map<Long, Short> entries = new TreeMap<>();
+    private final GobangEngine engine = new GobangEngine();
+
+    public static void main(String[] args) throws Exception {
+        String output = args.length > 0 ? args[0] : "app/src/main/res/raw/gobang_openings.bin";
+        GobangOpeningBookGenerator generator = new GobangOpeningBookGenerator();
+        generator.generate();
+        generator.writeTo(output);
+    }
+
+    private void generate() {
+        int[][] board = new int[N][N];
+
+        // 空棋盘：天元
+        addEntry(board, C * N + C);
+
+        // 黑 1 天元后白 2 的应对
+        board[C][C] = BLACK;
+        addSearched(board, WHITE);
+
+        for (int s = 0; s < SECOND_MOVES.length; s++) {
+            board[C + SECOND_MOVES[s][0]][C + SECOND_MOVES[s][1]] = WHITE;
+            addSearched(board, BLACK);
+
+            int[][] thirds = (s == 0) ? DIRECT_THIRD_MOVES : INDIRECT_THIRD_MOVES;
+            for (int[] third : thirds) {
+                int tx = C + third[0], ty = C + third[1];
+                board[tx][ty] = BLACK;
+                int whiteFourth = addSearched(board, WHITE);
+                log("开局 " + (s == 0 ? "直指" : "斜指") + " (" + third[0] + "," + third[1] + ") 白4 -> " + whiteFourth);
+
+                for (int reply : candidateReplies(board, whiteFourth)) {
+                    board[reply / N][reply % N] = WHITE;
+                    addSearched(board, BLACK);
+                    board[reply / N][reply % N] = GobangGame.EMPTY;
+                }
+                board[tx][ty] = GobangGame.EMPTY;
+            }
+            board[C + SECOND_MOVES[s][0]][C + SECOND_MOVES[s][1]] = GobangGame.EMPTY;
+        }
+    }
+
+    /**
+     * 白 4 的候选：搜索结果优先，其余取天元附近的空位，按对称去重
+     */
+    private List<Integer> candidateReplies(int[][] board, int best) {
+        List<Integer> replies = new ArrayList<>();
+        List<Long> seen = new ArrayList<>();
+        List<Integer> ordered = new ArrayList<>();
+        ordered.add(best);
+        for (int r = 1; r <= 2; r++)
+            for (int dx = -r; dx <= r; dx++)
+                for (int dy = -r; dy <= r; dy++)
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) == r) ordered.add((C + dx) * N + (C + dy));
+
+        for (int move : ordered) {
+            if (replies.size() >= WHITE_FOURTH_CANDIDATES) break;
+            int x = move / N, y = move % N;
+            if (board[x][y] != GobangGame.EMPTY) continue;
+            board[x][y] = WHITE;
+            long key = GobangZobrist.canonicalHash(board, null);
+            board[x][y] = GobangGame.EMPTY;
+            if (seen.contains(key)) continue;
+            seen.add(key);
+            replies.add(move);
+        }
+        return replies;
+    }
+
+    private int addSearched(int[][] board, int sideToMove) {
+        int[] transform = new int[1];
+        long key = GobangZobrist.canonicalHash(board, transform);
+        Short known = entries.get(key);
+        if (known != null) return GobangZobrist.inverseTransform(known, transform[0]);
+
+        engine.clearTranspositionTable();
+        engine.setPosition(board, sideToMove, false);
+        int move = engine.findBestMove(new GobangSearchController(SEARCH_DEPTH, SEARCH_NODES, Long.MAX_VALUE, Long.MAX_VALUE));
+        addEntry(board, move);
+        return move;
+    }
+
+    private void addEntry(int[][] board, int move) {
+        int[] transform = new int[1];
+        long key = GobangZobrist.canonicalHash(board, transform);
+        entries.put(key, (short) GobangZobrist.transform(move, transform[0]));
+    }
+
+    private void writeTo(String path) throws Exception {
+        long[] keys = new long[entries.size()];
+        short[] moves = new short[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, Short> e : entries.entrySet()) {
+            keys[i] = e.getKey();
+            moves[i] = e.getValue();
+            i++;
+        }
+        try (OutputStream out = new FileOutputStream(path)) {
+            GobangOpeningBook.write(out, keys, moves, MAX_STONES);
+        }
+        log("写出 " + keys.length + " 个局面到 " + path);
+    }
+
+    private static void log(String message) {
+        System.out.println(message);
+    }
+}
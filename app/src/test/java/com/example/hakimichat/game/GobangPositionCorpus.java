@@ -0,0 +1,100 @@
+package com.example.hakimichat.game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 五子棋局面库（src/test/resources/gobang_positions.txt），供 GobangBenchmarkTest 和 GobangBenchmark 共用。
+ * 行格式见文件头部注释；名称不以 quiet 开头的是战术局面。
+ */
+final class GobangPositionCorpus {
+
+    static final int BOARD_SIZE = GobangGame.BOARD_SIZE;
+
+    private GobangPositionCorpus() {
+    }
+
+    static List<Position> load() throws IOException {
+        List<Position> corpus = new ArrayList<>();
+        InputStream in = GobangPositionCorpus.class.getClassLoader().getResourceAsStream("gobang_positions.txt");
+        if (in == null) throw new IOException("找不到 gobang_positions.txt");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                corpus.add(Position.parse(line));
+            }
+        }
+        return corpus;
+    }
+
+    static String format(int move) {
+        return move < 0 ? "-" : (move / BOARD_SIZE) + "," + (move % BOARD_SIZE);
+    }
+
+    /**
+     * 局面库中的一个局面
+     */
+    static final class Position {
+        String name;
+        int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
+        int sideToMove;
+        boolean strict;
+        boolean tactical;
+        List<Integer> bestMoves = new ArrayList<>();
+        List<Integer> avoidMoves = new ArrayList<>();
+
+        static Position parse(String line) {
+            String[] fields = line.split("\\|");
+            if (fields.length < 3) throw new IllegalArgumentException("字段不足: " + line);
+            Position position = new Position();
+            position.name = fields[0].trim();
+            position.tactical = !position.name.startsWith("quiet");
+            position.strict = fields.length > 3 && fields[3].trim().equals("strict");
+
+            int color = GobangGame.BLACK_PIECE;
+            for (String token : fields[1].trim().split("\\s+")) {
+                int move = parseMove(token);
+                if (position.board[move / BOARD_SIZE][move % BOARD_SIZE] != GobangGame.EMPTY) {
+                    throw new IllegalArgumentException("重复落子 " + token + ": " + line);
+                }
+                position.board[move / BOARD_SIZE][move % BOARD_SIZE] = color;
+                color = (color == GobangGame.BLACK_PIECE) ? GobangGame.WHITE_PIECE : GobangGame.BLACK_PIECE;
+            }
+            position.sideToMove = color;
+
+            for (String token : fields[2].trim().split("\\s+")) {
+                if (token.isEmpty()) continue;
+                if (token.startsWith("!")) position.avoidMoves.add(parseMove(token.substring(1)));
+                else position.bestMoves.add(parseMove(token));
+            }
+            return position;
+        }
+
+        private static int parseMove(String token) {
+            String[] parts = token.split(",");
+            return Integer.parseInt(parts[0]) * BOARD_SIZE + Integer.parseInt(parts[1]);
+        }
+
+        GobangEngine newEngine() {
+            GobangEngine engine = new GobangEngine();
+            engine.setPosition(board, sideToMove, strict);
+            return engine;
+        }
+
+        boolean hasReference() {
+            return !bestMoves.isEmpty() || !avoidMoves.isEmpty();
+        }
+
+        boolean agrees(int move) {
+            if (avoidMoves.contains(move)) return false;
+            return bestMoves.isEmpty() || bestMoves.contains(move);
+        }
+    }
+}
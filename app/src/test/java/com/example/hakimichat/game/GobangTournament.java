@@ -0,0 +1,267 @@
+package com.example.hakimichat.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 五子棋AI自我对弈比赛工具（在 JVM 上运行，不需要模拟器）
+ * 让两套AI配置（深度、节点/时间预算、评估棋型分数）在多个CPU核心上并行对弈，
+ * 输出 A 方的胜/负/和、得分率及 95% 置信区间、对应的 Elo 差，以及双方每步平均耗时和节点数。
+ *
+ * 每个随机开局下两局，双方交换黑白，抵消先手优势。
+ * 参数为 key=value 形式，例如：
+ *   java ... GobangTournament games=400 strict=true a.depth=4 a.nodes=400000 b.depth=6 b.nodes=0 b.soft=1500 b.hard=2500
+ *   java ... GobangTournament b.weights=500000,50000,500,300,10,5
+ * 未指定的配置取普通难度的预算与默认棋型分数。
+ */
+public class GobangTournament {
+
+    private static final int N = GobangGame.BOARD_SIZE;
+    private static final int C = N / 2;
+    private static final int BLACK = GobangGame.BLACK_PIECE;
+    private static final int WHITE = GobangGame.WHITE_PIECE;
+
+    // 对局结果（以 A 方视角）
+    private static final int RESULT_LOSS = 0;
+    private static final int RESULT_DRAW = 1;
+    private static final int RESULT_WIN = 2;
+
+    /**
+     * 一套AI配置
+     */
+    static class Config {
+        String name;
+        int maxDepth = 4;
+        long nodeBudget = 400_000;
+        long softMs = 1500;
+        long hardMs = 2500;
+        int[] weights = GobangEngine.getDefaultLineWeights();
+
+        Config(String name) {
+            this.name = name;
+        }
+
+        GobangSearchController newController() {
+            return new GobangSearchController(maxDepth, nodeBudget, softMs, hardMs);
+        }
+
+        GobangEngine newEngine() {
+            GobangEngine engine = new GobangEngine();
+            engine.setLineWeights(weights);
+            return engine;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < weights.length; i++) sb.append(i == 0 ? "" : ",").append(weights[i]);
+            return name + "{depth=" + maxDepth + ", nodes=" + nodeBudget + ", soft=" + softMs
+                    + "ms, hard=" + hardMs + "ms, weights=" + sb + "}";
+        }
+    }
+
+    /**
+     * 一局的结果与双方的耗时统计
+     */
+    static class GameRecord {
+        int result;
+        int plies;
+        long[] moves = new long[2];
+        long[] nanos = new long[2];
+        long[] nodes = new long[2];
+    }
+
+    private final Config configA;
+    private final Config configB;
+    private final boolean strict;
+    private final int openingMoves;
+
+    GobangTournament(Config configA, Config configB, boolean strict, int openingMoves) {
+        this.configA = configA;
+        this.configB = configB;
+        this.strict = strict;
+        this.openingMoves = openingMoves;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int games = Integer.parseInt(options.getOrDefault("games", "200"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", "20240601"));
+        boolean strict = Boolean.parseBoolean(options.getOrDefault("strict", "false"));
+        int openingMoves = Integer.parseInt(options.getOrDefault("opening", "3"));
+
+        Config a = parseConfig("a", options);
+        Config b = parseConfig("b", options);
+        System.out.println("A = " + a);
+        System.out.println("B = " + b);
+        System.out.println("对局数 " + games + "，线程数 " + threads + "，严格模式 " + strict + "，随机开局 " + openingMoves + " 手");
+
+        new GobangTournament(a, b, strict, openingMoves).run(games, threads, seed);
+    }
+
+    private static Config parseConfig(String prefix, Map<String, String> options) {
+        Config config = new Config(prefix.toUpperCase());
+        String value;
+        if ((value = options.get(prefix + ".depth")) != null) config.maxDepth = Integer.parseInt(value);
+        if ((value = options.get(prefix + ".nodes")) != null) config.nodeBudget = Long.parseLong(value);
+        if ((value = options.get(prefix + ".soft")) != null) config.softMs = Long.parseLong(value);
+        if ((value = options.get(prefix + ".hard")) != null) config.hardMs = Long.parseLong(value);
+        if ((value = options.get(prefix + ".weights")) != null) {
+            String[] parts = value.split(",");
+            for (int i = 0; i < parts.length && i < config.weights.length; i++) {
+                config.weights[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        return config;
+    }
+
+    void run(int games, int threads, long seed) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<GameRecord>> futures = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < games; i++) {
+            // 相邻两局使用同一开局，A 方先黑后白
+            final long openingSeed = seed + i / 2;
+            final boolean aIsBlack = (i % 2 == 0);
+            futures.add(pool.submit(() -> playGame(openingSeed, aIsBlack)));
+        }
+
+        int wins = 0, draws = 0, losses = 0;
+        long[] moves = new long[2], nanos = new long[2], nodes = new long[2];
+        long plies = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            GameRecord record = futures.get(i).get();
+            if (record.result == RESULT_WIN) wins++;
+            else if (record.result == RESULT_DRAW) draws++;
+            else losses++;
+            plies += record.plies;
+            for (int side = 0; side < 2; side++) {
+                moves[side] += record.moves[side];
+                nanos[side] += record.nanos[side];
+                nodes[side] += record.nodes[side];
+            }
+            if ((i + 1) % 20 == 0) {
+                System.out.println("已完成 " + (i + 1) + "/" + games + "：A 胜 " + wins + " 和 " + draws + " 负 " + losses);
+            }
+        }
+        pool.shutdown();
+        long elapsed = System.currentTimeMillis() - start;
+
+        int n = wins + draws + losses;
+        double score = (wins + draws * 0.5) / n;
+        // 每局得分的方差，用正态近似计算 95% 置信区间
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / n;
+        double margin = 1.96 * Math.sqrt(variance / n);
+        double low = Math.max(0, score - margin), high = Math.min(1, score + margin);
+
+        System.out.println();
+        System.out.println(String.format("A 胜 %d / 和 %d / 负 %d，共 %d 局，平均 %.1f 手，总耗时 %.1f s",
+                wins, draws, losses, n, (double) plies / n, elapsed / 1000.0));
+        System.out.println(String.format("A 得分率 %.1f%%（95%% 置信区间 %.1f%% ~ %.1f%%）",
+                score * 100, low * 100, high * 100));
+        System.out.println(String.format("Elo 差 %+.0f（%+.0f ~ %+.0f）", elo(score), elo(low), elo(high)));
+        Config[] configs = {configA, configB};
+        for (int side = 0; side < 2; side++) {
+            long count = Math.max(1, moves[side]);
+            System.out.println(String.format("%s 每步平均 %.1f ms，%d 节点", configs[side].name,
+                    nanos[side] / 1e6 / count, nodes[side] / count));
+        }
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    GameRecord playGame(long openingSeed, boolean aIsBlack) {
+        int[][] board = new int[N][N];
+        GobangRenju renju = new GobangRenju();
+        GameRecord record = new GameRecord();
+
+        // 随机开局：天元附近 5×5 范围内随机落子，黑白交替
+        Random random = new Random(openingSeed);
+        int color = BLACK;
+        int stones = 0;
+        while (stones < openingMoves) {
+            int x = C - 2 + random.nextInt(5), y = C - 2 + random.nextInt(5);
+            if (stones == 0 && strict) {
+                x = C;
+                y = C;
+            }
+            if (board[x][y] != GobangGame.EMPTY) continue;
+            board[x][y] = color;
+            renju.place(x, y, color);
+            color = opponent(color);
+            stones++;
+        }
+
+        // 下标 0 为 A，1 为 B
+        GobangEngine[] engines = {configA.newEngine(), configB.newEngine()};
+        Config[] configs = {configA, configB};
+        int blackSide = aIsBlack ? 0 : 1;
+
+        while (stones < N * N) {
+            int side = (color == BLACK) ? blackSide : 1 - blackSide;
+            GobangSearchController controller = configs[side].newController();
+            long t0 = System.nanoTime();
+            engines[side].setPosition(board, color, strict);
+            int move = engines[side].findBestMove(controller);
+            record.nanos[side] += System.nanoTime() - t0;
+            record.nodes[side] += controller.getNodes();
+            record.moves[side]++;
+            record.plies++;
+
+            if (move < 0) break;
+            int x = move / N, y = move % N;
+            // 非法落子或禁手判负
+            if (board[x][y] != GobangGame.EMPTY || (strict && color == BLACK && renju.isForbidden(x, y))) {
+                record.result = (side == 0) ? RESULT_LOSS : RESULT_WIN;
+                return record;
+            }
+            board[x][y] = color;
+            renju.place(x, y, color);
+            stones++;
+            if (isWin(board, x, y, color)) {
+                record.result = (side == 0) ? RESULT_WIN : RESULT_LOSS;
+                return record;
+            }
+            color = opponent(color);
+        }
+        record.result = RESULT_DRAW;
+        return record;
+    }
+
+    private boolean isWin(int[][] board, int x, int y, int color) {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        for (int[] dir : directions) {
+            int count = 1;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                for (int i = 1; i < 6; i++) {
+                    int nx = x + sign * i * dir[0], ny = y + sign * i * dir[1];
+                    if (nx < 0 || ny < 0 || nx >= N || ny >= N || board[nx][ny] != color) break;
+                    count++;
+                }
+            }
+            if (strict && color == BLACK ? count == 5 : count >= 5) return true;
+        }
+        return false;
+    }
+
+    private static int opponent(int color) {
+        return color == BLACK ? WHITE : BLACK;
+    }
+}
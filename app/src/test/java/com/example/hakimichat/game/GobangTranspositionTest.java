@@ -0,0 +1,77 @@
+package com.example.hakimichat.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 五子棋置换表的深度规则：较浅的条目不能截断更深的搜索，同深度的新结果覆盖旧条目。
+ */
+public class GobangTranspositionTest {
+
+    private static final int N = GobangGame.BOARD_SIZE;
+    private static final int BLACK = GobangGame.BLACK_PIECE;
+    private static final int WHITE = GobangGame.WHITE_PIECE;
+    // 写入置换表的假分数，小于 WIN_SCORE 以免迭代加深提前结束
+    private static final int POISON = GobangEngine.WIN_SCORE - 1;
+
+    private static int[][] quietBoard() {
+        int[][] board = new int[N][N];
+        board[7][7] = BLACK;
+        board[7][8] = WHITE;
+        board[8][8] = BLACK;
+        return board;
+    }
+
+    @Test
+    public void storedDepthRoundTrips() {
+        GobangEngine engine = new GobangEngine();
+        engine.setPosition(quietBoard(), WHITE, false);
+        assertEquals(-1, engine.probeTranspositionDepth());
+
+        engine.storeTransposition(10, 0, GobangEngine.TT_EXACT, -1);
+        assertEquals(0, engine.probeTranspositionDepth());
+
+        engine.storeTransposition(20, 3, GobangEngine.TT_EXACT, -1);
+        assertEquals(3, engine.probeTranspositionDepth());
+    }
+
+    @Test
+    public void equalDepthReplacesAndShallowerDoesNot() {
+        GobangEngine engine = new GobangEngine();
+        engine.setPosition(quietBoard(), WHITE, false);
+
+        engine.storeTransposition(10, 2, GobangEngine.TT_EXACT, -1);
+        engine.storeTransposition(20, 2, GobangEngine.TT_LOWER, -1);
+        assertEquals(20, engine.probeTranspositionScore());
+
+        engine.storeTransposition(30, 1, GobangEngine.TT_EXACT, -1);
+        assertEquals(2, engine.probeTranspositionDepth());
+        assertEquals(20, engine.probeTranspositionScore());
+    }
+
+    @Test
+    public void shallowEntryDoesNotCutOffDeeperSearch() {
+        int[][] board = quietBoard();
+        GobangEngine engine = new GobangEngine();
+        engine.setPosition(board, WHITE, false);
+        int move = engine.generateMoves(WHITE)[0];
+
+        // 在 AI 落下 move 后的局面写入深度 0 的假结果
+        int[][] child = quietBoard();
+        child[move / N][move % N] = WHITE;
+        engine.setPosition(child, WHITE, false);
+        engine.storeTransposition(POISON, 0, GobangEngine.TT_EXACT, -1);
+
+        // 深度 2 的搜索在该局面剩余深度为 1，深度 0 的条目不能直接返回，必须重新搜索并覆盖
+        engine.setPosition(board, WHITE, false);
+        engine.findBestMove(new GobangSearchController(2, 0, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(2, engine.getLastCompletedDepth());
+
+        engine.setPosition(child, WHITE, false);
+        assertTrue(engine.probeTranspositionDepth() >= 1);
+        assertNotEquals(POISON, engine.probeTranspositionScore());
+    }
+}